@@ -0,0 +1,55 @@
+import java.lang.management.ManagementFactory;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+
+import com.github.forax.jayspec.JayAssertion;
+
+/*
+ * Measures the number of bytes allocated by passing assertions,
+ * should be 0 once the JIT has kicked in.
+ */
+public interface AllocationBench {
+  static long allocatedBytes() {
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+  
+  static int loop(IntUnaryOperator assertion, int iterations) {
+    int sum = 0;
+    for(int i = 0; i < iterations; i++) {
+      sum += assertion.applyAsInt(i);
+    }
+    return sum;
+  }
+  
+  static void measure(String name, IntUnaryOperator assertion) {
+    int iterations = 10_000_000;
+    for(int i = 0; i < 10; i++) {  // warmup
+      loop(assertion, iterations);
+    }
+    
+    allocatedBytes();  // the first call may allocate
+    long start = allocatedBytes();
+    loop(assertion, iterations);
+    long end = allocatedBytes();
+    
+    System.out.println(name + ": " +
+        (double)(end - start) / iterations + " byte(s) allocated per passing assertion");
+  }
+  
+  public static void main(String[] args) {
+    JayAssertion verify = new JayAssertion();
+    measure("verify.that(int).isEqualTo(int)", i -> {
+      verify.that(i).isEqualTo(i);
+      return i;
+    });
+    
+    TreeMap<String, Integer> map = new TreeMap<>();
+    map.put("hello", 1);
+    measure("verify.that(map).keySet().first().getInt(String::length).isEqualTo(int)", i -> {
+      verify.that(map).keySet().first().getInt(String::length).isEqualTo(5);
+      return i;
+    });
+  }
+}
@@ -1,7 +1,19 @@
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import com.github.forax.jayspec.Generator;
+import com.github.forax.jayspec.JayAssertion;
+import com.github.forax.jayspec.JayAssertion.Checker;
 import com.github.forax.jayspec.JaySpec;
+import com.github.forax.jayspec.JaySpec.Fixture;
 import com.github.forax.jayspec.JayAssertion.Assert.ToBooleanFunction;
 
 public interface ExampleTest {
@@ -59,6 +71,124 @@ public interface ExampleTest {
         });
       });
       
+      describe(Integer.class, it -> {
+        given("the value %s", Stream.of(1, 2, 3), value -> {
+          it.should("be positive", verify -> {
+            verify.that(value).isGreaterThan(0);
+          });
+        });
+        
+        // the parameters are pulled lazily, so a large range is not stored in memory
+        given("a value of a large range", () -> IntStream.range(0, 100_000).iterator(), value -> {
+          it.should("be in the range", verify -> {
+            verify.that(value).isInRange(0, 99_999);
+          });
+        });
+      });
+      
+      describe(StringBuilder.class, it -> {
+        given("any string", () -> {
+          // the property is checked on 1000 generated strings, a counterexample is shrunk
+          it.should("have the same length once reversed", verify -> {
+            verify.forAll(Generator.strings(), (s, check) -> {
+              check.that(new StringBuilder(s).reverse().length()).isEqualTo(s.length());
+            });
+          });
+          it.should("be itself once reversed twice", verify -> {
+            verify.forAll(Generator.strings(), (s, check) -> {
+              check.that(new StringBuilder(s).reverse().reverse().toString()).isEqualTo(s);
+            });
+          });
+        });
+      });
+      
+      describe(Arrays.class, it -> {
+        // created the first time get() is called, shared by all the specs using the key "sorted ints"
+        Fixture<int[]> sorted = sharedFixture("sorted ints", () -> IntStream.range(0, 1_000).toArray());
+        
+        given("a sorted array", () -> {
+          it.should("be sorted", verify -> {
+            verify.that(sorted.get()).isSorted();
+          });
+          it.should("have a sum of 499500", verify -> {
+            verify.that(sorted.get()).sum().isEqualTo(499_500L);
+          });
+          it.should("find 500 at index 500", verify -> {
+            verify.that(Arrays.binarySearch(sorted.get(), 500)).isEqualTo(500);
+          });
+          it.shouldRunWithin("sort a copy in less than a second", 100, Duration.ofSeconds(1), () -> {
+            Arrays.sort(sorted.get().clone());
+          });
+        });
+        
+        // the tests only read the array, so they can run in parallel
+        givenConcurrent("a copy of a sorted array", () -> {
+          int[] copy = Arrays.copyOf(sorted.get(), 1_000);
+          
+          it.should("have no mismatch", verify -> {
+            verify.that(copy).mismatchCount(sorted.get()).isEqualTo(0);
+          });
+          it.should("have the same bytes once encoded", verify -> {
+            ByteBuffer buffer = ByteBuffer.allocate(4 * copy.length);
+            buffer.asIntBuffer().put(copy);
+            verify.that(buffer).remaining().isEqualTo(4_000);
+          });
+        });
+      });
+      
+      // each example of the spec must finish in less than 10 seconds
+      describe(HashMap.class, Duration.ofSeconds(10), it -> {
+        // created the first time get() is called, shared by the examples of this spec
+        Fixture<HashMap<Integer, String>> map = fixture("a big map", () -> {
+          HashMap<Integer, String> big = new HashMap<>();
+          for(int i = 0; i < 10_000; i++) {
+            big.put(i, "" + i);
+          }
+          return big;
+        });
+        
+        tagged("slow").given("a big map", Duration.ofSeconds(5), () -> {
+          it.should("have 10000 entries", verify -> {
+            verify.that(map.get()).size().isEqualTo(10_000);
+          });
+          it.should("contain the key 0", verify -> {
+            verify.that(map.get()).containsKey(0);
+          });
+        });
+        
+        // the behavior is passed to the example, so any thread can define the tests
+        given("a big map seen by another thread", behavior -> {
+          Thread thread = new Thread(() -> {
+            behavior.should("map 42 to \"42\"", verify -> {
+              verify.that(map.get().get(42)).isEqualTo("42");
+            });
+          });
+          thread.start();
+          try {
+            thread.join();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+        });
+      });
+      
+      describe(JayAssertion.class, it -> {
+        given("a checker that records the failures", () -> {
+          it.should("only be called for the failed assertions", verify -> {
+            ArrayList<String> failures = new ArrayList<>();
+            JayAssertion recording = new JayAssertion(new Checker() {
+              @Override
+              public <E> void check(E actual, Predicate<? super E> predicate, Supplier<String> text) {
+                failures.add(String.format(text.get(), actual));
+              }
+            });
+            recording.that(1).isEqualTo(1);
+            recording.that(1).isEqualTo(2);
+            verify.that(failures).size().isEqualTo(1);
+          });
+        });
+      });
+      
     }}.run();
   }
 
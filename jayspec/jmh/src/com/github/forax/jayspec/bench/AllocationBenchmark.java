@@ -0,0 +1,56 @@
+package com.github.forax.jayspec.bench;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.forax.jayspec.JayAssertion;
+
+/**
+ * Allocations of the passing assertions, should be 0 byte once the JIT has kicked in.
+ * Run with the GC profiler and read gc.alloc.rate.norm (bytes by operation),
+ *   java -jar lib/benchmarks.jar AllocationBenchmark -prof gc
+ * The checked values are consumed by a Blackhole but the assertion objects are not,
+ * consuming them would make them escape and defeat the escape analysis being measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+  private final JayAssertion verify = new JayAssertion();
+  private TreeMap<String, Integer> map;
+  private int value;
+  
+  @Setup
+  public void setup() {
+    map = new TreeMap<>();
+    map.put("hello", 1);
+    value = 42;
+  }
+  
+  @Benchmark
+  public void intIsEqualTo(Blackhole blackhole) {
+    verify.that(value).isEqualTo(value);
+    blackhole.consume(value);
+  }
+  
+  @Benchmark
+  public void keySetFirstGetIntIsEqualTo(Blackhole blackhole) {
+    verify.that(map).keySet().first().getInt(String::length).isEqualTo(5);
+    blackhole.consume(map);
+  }
+}
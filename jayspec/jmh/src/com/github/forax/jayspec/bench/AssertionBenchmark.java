@@ -0,0 +1,85 @@
+package com.github.forax.jayspec.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.forax.jayspec.JayAssertion;
+
+/**
+ * Cost of the assertions of JayAssertion, passing and failing.
+ * The failing benchmarks also measure the creation of the AssertionError
+ * and for getInt() the decoding of the method name of the method reference.
+ * A passing assertion returns nothing, so the checked value is consumed
+ * by a Blackhole to keep the JIT from removing the assertion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssertionBenchmark {
+  private final JayAssertion verify = new JayAssertion();
+  private List<String> list;
+  private String text;
+  private int value;
+  
+  @Setup
+  public void setup() {
+    list = new ArrayList<>();
+    list.add("hello");
+    text = "hello";
+    value = 42;
+  }
+  
+  @Benchmark
+  public void intIsEqualTo(Blackhole blackhole) {
+    verify.that(value).isEqualTo(42);
+    blackhole.consume(value);
+  }
+  
+  @Benchmark
+  public void chainedGetIsEqualTo(Blackhole blackhole) {
+    verify.that(list).get(0).isEqualTo("hello");
+    blackhole.consume(list);
+  }
+  
+  @Benchmark
+  public void chainedSizeIsEqualTo(Blackhole blackhole) {
+    verify.that(list).size().isEqualTo(1);
+    blackhole.consume(list);
+  }
+  
+  @Benchmark
+  public Object chainedGetIsEqualToFailing() {
+    try {
+      verify.that(list).get(0).isEqualTo("goodbye");
+      throw new AssertionError("should have failed");
+    } catch(AssertionError e) {
+      return e;
+    }
+  }
+  
+  @Benchmark
+  public Object getIntMethodNameFailing() {
+    try {
+      verify.that(text).getInt(String::length).isEqualTo(-1);
+      throw new AssertionError("should have failed");
+    } catch(AssertionError e) {
+      return e;
+    }
+  }
+}
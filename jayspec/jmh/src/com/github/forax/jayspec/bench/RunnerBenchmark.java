@@ -0,0 +1,54 @@
+package com.github.forax.jayspec.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.forax.jayspec.JaySpec;
+import com.github.forax.jayspec.JaySpec.ExecutionStrategy;
+
+/**
+ * Overhead of the runner for an empty should().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunnerBenchmark {
+  private static final int TEST_COUNT = 1_000;
+  
+  private JaySpec spec;
+  
+  @Setup
+  public void setup() {
+    spec = new JaySpec() {{
+      describe(Object.class, it -> {
+        given("an example with empty tests", () -> {
+          for(int i = 0; i < TEST_COUNT; i++) {
+            it.should("do nothing", verify -> { /* empty */ });
+          }
+        });
+      });
+    }};
+    spec.setExecutionStrategy(ExecutionStrategy.sequential());
+  }
+  
+  @Benchmark
+  @OperationsPerInvocation(TEST_COUNT)
+  public void emptyShould(Blackhole blackhole) {
+    spec.run((example, description, error, duration) -> blackhole.consume(error));
+  }
+}
@@ -0,0 +1,78 @@
+package com.github.forax.jayspec.bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.forax.jayspec.JaySpec;
+import com.github.forax.jayspec.JaySpec.ExecutionStrategy;
+
+/**
+ * Time to run a synthetic suite of testCount tests (10 tests by example)
+ * with the fork-join strategy using a pool of threadCount threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScalingBenchmark {
+  private static final int TESTS_BY_EXAMPLE = 10;
+  
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int testCount;
+  
+  @Param({"1", "2", "4", "8"})
+  public int threadCount;
+  
+  private ForkJoinPool pool;
+  private JaySpec spec;
+  
+  @Setup
+  public void setup() {
+    pool = new ForkJoinPool(threadCount);
+    int exampleCount = testCount / TESTS_BY_EXAMPLE;
+    spec = new JaySpec() {{
+      describe(Integer.class, it -> {
+        for(int i = 0; i < exampleCount; i++) {
+          int value = i;
+          given("the value " + i, () -> {
+            for(int j = 0; j < TESTS_BY_EXAMPLE; j++) {
+              int other = j;
+              it.should("be greater or equal than " + j, verify -> {
+                verify.that(value + other).isGreaterOrEqualThan(other);
+              });
+            }
+          });
+        }
+      });
+    }};
+    // a parallel stream started from a task of a fork-join pool runs in that pool
+    ExecutionStrategy forkJoin = ExecutionStrategy.forkJoin();
+    spec.setExecutionStrategy((examples, runner) -> pool.submit(() -> forkJoin.execute(examples, runner)).join());
+  }
+  
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+  
+  @Benchmark
+  public void runSuite(Blackhole blackhole) {
+    spec.run((example, description, error, duration) -> blackhole.consume(error));
+  }
+}
@@ -0,0 +1,73 @@
+package com.github.forax.jayspec.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.forax.jayspec.JaySpec;
+import com.github.forax.jayspec.JaySpec.ExecutionStrategy;
+
+/**
+ * Overhead by example of the scope of the behavior, an example with one empty should()
+ * using the behavior of describe() (bound to the thread by a ScopedValue on a JDK 25+
+ * or a ThreadLocal otherwise) or the behavior passed to the example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScopeBenchmark {
+  private static final int EXAMPLE_COUNT = 1_000;
+  
+  private JaySpec scopedSpec;
+  private JaySpec explicitSpec;
+  
+  @Setup
+  public void setup() {
+    scopedSpec = new JaySpec() {{
+      describe(Object.class, it -> {
+        for(int i = 0; i < EXAMPLE_COUNT; i++) {
+          given("an example", () -> {
+            it.should("do nothing", verify -> { /* empty */ });
+          });
+        }
+      });
+    }};
+    explicitSpec = new JaySpec() {{
+      describe(Object.class, __ -> {
+        for(int i = 0; i < EXAMPLE_COUNT; i++) {
+          given("an example", it -> {
+            it.should("do nothing", verify -> { /* empty */ });
+          });
+        }
+      });
+    }};
+    scopedSpec.setExecutionStrategy(ExecutionStrategy.sequential());
+    explicitSpec.setExecutionStrategy(ExecutionStrategy.sequential());
+  }
+  
+  @Benchmark
+  @OperationsPerInvocation(EXAMPLE_COUNT)
+  public void scopedBehavior(Blackhole blackhole) {
+    scopedSpec.run((example, description, error, duration) -> blackhole.consume(error));
+  }
+  
+  @Benchmark
+  @OperationsPerInvocation(EXAMPLE_COUNT)
+  public void explicitBehavior(Blackhole blackhole) {
+    explicitSpec.run((example, description, error, duration) -> blackhole.consume(error));
+  }
+}
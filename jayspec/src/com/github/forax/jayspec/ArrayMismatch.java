@@ -0,0 +1,142 @@
+package com.github.forax.jayspec;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Finds the first index at which two arrays (or the remaining bytes of two buffers) differ.
+ *
+ * Arrays.mismatch and ByteBuffer.mismatch are intrinsics that compare several elements at once,
+ * they are only available since Java 9 (resp. Java 11) so they are looked up at runtime
+ * and a plain loop is used on older JDKs.
+ *
+ * All methods return the index of the first mismatch at or after {@code from},
+ * the length of the shorter one if it's a prefix of the other, or -1 if there is no mismatch.
+ */
+final class ArrayMismatch {
+  private ArrayMismatch() {
+    throw new AssertionError();
+  }
+
+  private static final MethodHandle BYTE_MISMATCH = arraysMismatch(byte[].class);
+  private static final MethodHandle INT_MISMATCH = arraysMismatch(int[].class);
+  private static final MethodHandle LONG_MISMATCH = arraysMismatch(long[].class);
+  private static final MethodHandle DOUBLE_MISMATCH = arraysMismatch(double[].class);
+  private static final MethodHandle BUFFER_MISMATCH = bufferMismatch();
+
+  private static MethodHandle arraysMismatch(Class<?> arrayType) {
+    return JdkSupport.findStatic(Arrays.class, "mismatch",
+        MethodType.methodType(int.class, arrayType, int.class, int.class, arrayType, int.class, int.class));
+  }
+  private static MethodHandle bufferMismatch() {
+    return JdkSupport.findVirtual(ByteBuffer.class, "mismatch", MethodType.methodType(int.class, ByteBuffer.class));
+  }
+
+  private static int absolute(int relativeIndex, int from) {
+    return (relativeIndex == -1)? -1: from + relativeIndex;
+  }
+
+  private static int lengthMismatch(int length1, int length2) {
+    return (length1 == length2)? -1: Math.min(length1, length2);
+  }
+
+  static int mismatch(byte[] a, byte[] b, int from) {
+    return mismatch(a, 0, a.length, b, 0, b.length, from);
+  }
+  private static int mismatch(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength, int from) {
+    if (BYTE_MISMATCH != null) {
+      try {
+        return absolute((int)BYTE_MISMATCH.invokeExact(a, aOffset + from, aOffset + aLength, b, bOffset + from, bOffset + bLength), from);
+      } catch (Throwable t) {
+        throw JdkSupport.rethrow(t);
+      }
+    }
+    int length = Math.min(aLength, bLength);
+    for(int i = from; i < length; i++) {
+      if (a[aOffset + i] != b[bOffset + i]) {
+        return i;
+      }
+    }
+    return lengthMismatch(aLength, bLength);
+  }
+
+  static int mismatch(int[] a, int[] b, int from) {
+    if (INT_MISMATCH != null) {
+      try {
+        return absolute((int)INT_MISMATCH.invokeExact(a, from, a.length, b, from, b.length), from);
+      } catch (Throwable t) {
+        throw JdkSupport.rethrow(t);
+      }
+    }
+    int length = Math.min(a.length, b.length);
+    for(int i = from; i < length; i++) {
+      if (a[i] != b[i]) {
+        return i;
+      }
+    }
+    return lengthMismatch(a.length, b.length);
+  }
+
+  static int mismatch(long[] a, long[] b, int from) {
+    if (LONG_MISMATCH != null) {
+      try {
+        return absolute((int)LONG_MISMATCH.invokeExact(a, from, a.length, b, from, b.length), from);
+      } catch (Throwable t) {
+        throw JdkSupport.rethrow(t);
+      }
+    }
+    int length = Math.min(a.length, b.length);
+    for(int i = from; i < length; i++) {
+      if (a[i] != b[i]) {
+        return i;
+      }
+    }
+    return lengthMismatch(a.length, b.length);
+  }
+
+  // same semantics as Arrays.equals(double[], double[])
+  static int mismatch(double[] a, double[] b, int from) {
+    if (DOUBLE_MISMATCH != null) {
+      try {
+        return absolute((int)DOUBLE_MISMATCH.invokeExact(a, from, a.length, b, from, b.length), from);
+      } catch (Throwable t) {
+        throw JdkSupport.rethrow(t);
+      }
+    }
+    int length = Math.min(a.length, b.length);
+    for(int i = from; i < length; i++) {
+      if (Double.doubleToLongBits(a[i]) != Double.doubleToLongBits(b[i])) {
+        return i;
+      }
+    }
+    return lengthMismatch(a.length, b.length);
+  }
+
+  // compares the remaining bytes, the positions of the buffers are not changed
+  static int mismatch(ByteBuffer a, ByteBuffer b, int from) {
+    if (a.hasArray() && b.hasArray()) {
+      return mismatch(a.array(), a.arrayOffset() + a.position(), a.remaining(),
+                      b.array(), b.arrayOffset() + b.position(), b.remaining(), from);
+    }
+    if (BUFFER_MISMATCH != null) {
+      ByteBuffer aSlice = a.duplicate();
+      aSlice.position(Math.min(a.position() + from, a.limit()));
+      ByteBuffer bSlice = b.duplicate();
+      bSlice.position(Math.min(b.position() + from, b.limit()));
+      try {
+        return absolute((int)BUFFER_MISMATCH.invokeExact(aSlice, bSlice), from);
+      } catch (Throwable t) {
+        throw JdkSupport.rethrow(t);
+      }
+    }
+    int length = Math.min(a.remaining(), b.remaining());
+    for(int i = from; i < length; i++) {
+      if (a.get(a.position() + i) != b.get(b.position() + i)) {
+        return i;
+      }
+    }
+    return lengthMismatch(a.remaining(), b.remaining());
+  }
+}
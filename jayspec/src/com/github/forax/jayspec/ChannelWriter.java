@@ -0,0 +1,208 @@
+package com.github.forax.jayspec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Writes text encoded in UTF-8 to a file, the text is encoded directly in a direct buffer
+ * which is written to the file channel when full, so there is no intermediary byte array.
+ * All methods are thread safe.
+ *
+ * The writer is called by the threads running the examples, those threads can be interrupted
+ * (by example when an example times out) and a FileChannel is closed when an I/O is interrupted
+ * (ClosedByInterruptException). So the texts are queued and all the I/Os are done by a dedicated
+ * writer thread, the threads of the examples never touch the channel.
+ */
+final class ChannelWriter implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int QUEUE_SIZE = 1 << 10;
+
+  @FunctionalInterface
+  private interface Operation {
+    void run() throws IOException;
+  }
+  private static final Operation END = () -> { /* empty */ };
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);       // only used by the writer thread
+  private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()      // only used by the writer thread
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final BlockingQueue<Operation> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+  private final Thread writerThread;
+  private volatile IOException failure;  // the first I/O error
+  private boolean closed;                // guarded by this
+
+  ChannelWriter(Path path) throws IOException {
+    this.channel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    Thread thread = new Thread(this::drain, "jayspec writer " + path);
+    thread.setDaemon(true);
+    thread.start();
+    this.writerThread = thread;
+  }
+
+  private void drain() {
+    for(;;) {
+      Operation operation;
+      try {
+        operation = queue.take();
+      } catch (InterruptedException e) {
+        continue;  // the writer thread is private, nobody should interrupt it
+      }
+      if (operation == END) {
+        return;
+      }
+      try {
+        operation.run();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+  }
+
+  private void enqueue(Operation operation) throws IOException {
+    IOException failure = this.failure;
+    if (failure != null) {
+      throw failure;
+    }
+    put(operation);
+  }
+
+  // the calling thread may be interrupted, it waits anyway and its interrupt status is restored
+  private void put(Operation operation) {
+    boolean interrupted = false;
+    try {
+      for(;;) {
+        try {
+          queue.put(operation);
+          return;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  // runs the action in the writer thread and waits for its result
+  private <T> T call(FutureTask<T> task) throws IOException {
+    enqueue(task::run);
+    boolean interrupted = false;
+    try {
+      for(;;) {
+        try {
+          return task.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          throw JdkSupport.rethrow(e.getCause());
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  synchronized void write(CharSequence text) throws IOException {
+    String string = text.toString();  // the caller may reuse its builder
+    enqueue(() -> encode(string));
+  }
+
+  /**
+   * Overwrites the bytes of the file at a position with a text, the text should be ASCII.
+   */
+  synchronized void writeAt(long position, String text) throws IOException {
+    enqueue(() -> {
+      flushBuffer();
+      ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+      while(bytes.hasRemaining()) {
+        channel.write(bytes, position + bytes.position());
+      }
+    });
+  }
+
+  /**
+   * Returns the position in the file of the next byte written.
+   */
+  synchronized long position() throws IOException {
+    return call(new FutureTask<>(() -> channel.position() + buffer.position()));
+  }
+
+  private void encode(String text) throws IOException {
+    CharBuffer chars = CharBuffer.wrap(text);
+    for(;;) {
+      CoderResult result = encoder.encode(chars, buffer, true);
+      if (result.isOverflow()) {
+        flushBuffer();
+        continue;
+      }
+      if (result.isError()) {
+        throw new CharacterCodingException();  // can not happen, errors are replaced
+      }
+      break;
+    }
+    encoder.reset();
+  }
+
+  // the casts to Buffer avoid to call the covariant methods of ByteBuffer added in Java 9,
+  // that don't exist on Java 8
+  private void flushBuffer() throws IOException {
+    ((Buffer)buffer).flip();
+    while(buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    ((Buffer)buffer).clear();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      put(this::flushBuffer);
+      put(END);
+      boolean interrupted = false;
+      while(writerThread.isAlive()) {
+        try {
+          writerThread.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    } finally {
+      channel.close();
+    }
+    IOException failure = this.failure;
+    if (failure != null) {
+      throw failure;
+    }
+  }
+}
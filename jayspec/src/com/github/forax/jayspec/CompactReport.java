@@ -0,0 +1,152 @@
+package com.github.forax.jayspec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.forax.jayspec.JaySpec.Example;
+import com.github.forax.jayspec.JaySpec.Listener;
+import com.github.forax.jayspec.JaySpec.Report;
+import com.github.forax.jayspec.JaySpec.Spec;
+
+/**
+ * A listener that keeps the outcome of a run in a compact form, the passed tests are only counted
+ * (by spec), only the failed tests are stored as {@link Report}s and the durations of the tests,
+ * if recorded, are stored in arrays of longs.
+ * So the memory used by the passed tests doesn't depend on their number
+ * (apart from 8 bytes by test if the durations are recorded).
+ *
+ * @see JaySpec#runCompact()
+ */
+public class CompactReport implements Listener {
+  private final LongAdder passedCount = new LongAdder();
+  private final LongAdder skippedCount = new LongAdder();
+  private final LongAdder cachedCount = new LongAdder();
+  private final ConcurrentHashMap<Spec, LongAdder> passedBySpec = new ConcurrentHashMap<>();
+  private final List<Report> failures = Collections.synchronizedList(new ArrayList<>());
+  private final DurationStripe[] stripes;  // null if the durations are not recorded
+
+  // the durations are appended to one of several arrays, chosen by thread, to avoid contention
+  private static final class DurationStripe {
+    private long[] durations = new long[16];
+    private int size;
+
+    synchronized void add(long duration) {
+      if (size == durations.length) {
+        durations = Arrays.copyOf(durations, size << 1);
+      }
+      durations[size++] = duration;
+    }
+
+    synchronized int copyTo(long[] array, int offset) {
+      int length = Math.min(size, array.length - offset);
+      System.arraycopy(durations, 0, array, offset, length);
+      return offset + length;
+    }
+
+    synchronized int size() {
+      return size;
+    }
+  }
+
+  public CompactReport(boolean recordDurations) {
+    if (recordDurations) {
+      // a power of two greater or equals than twice the number of processors
+      int count = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+      DurationStripe[] stripes = new DurationStripe[count];
+      for(int i = 0; i < stripes.length; i++) {
+        stripes[i] = new DurationStripe();
+      }
+      this.stripes = stripes;
+    } else {
+      this.stripes = null;
+    }
+  }
+  public CompactReport() {
+    this(true);
+  }
+
+  @Override
+  public void testFinished(Example example, String description, Throwable error, long duration) {
+    if (stripes != null) {
+      long id = Thread.currentThread().getId();
+      stripes[(int)(id ^ (id >>> 32)) & (stripes.length - 1)].add(duration);
+    }
+    if (error != null) {
+      failures.add(new Report(example, description, error, duration));
+      return;
+    }
+    passedCount.increment();
+    passedBySpec.computeIfAbsent(example.getSpec(), __ -> new LongAdder()).increment();
+  }
+
+  @Override
+  public void exampleSkipped(Example example) {
+    skippedCount.increment();
+  }
+
+  @Override
+  public void exampleCached(Example example, int testCount) {
+    cachedCount.increment();
+  }
+
+  public long getPassedCount() {
+    return passedCount.sum();
+  }
+  /**
+   * Returns the number of passed tests of a spec.
+   */
+  public long getPassedCount(Spec spec) {
+    LongAdder count = passedBySpec.get(spec);
+    return (count == null)? 0: count.sum();
+  }
+  public long getFailedCount() {
+    return failures.size();
+  }
+  public long getTestCount() {
+    return getPassedCount() + getFailedCount();
+  }
+  public long getSkippedCount() {
+    return skippedCount.sum();
+  }
+  public long getCachedCount() {
+    return cachedCount.sum();
+  }
+
+  /**
+   * Returns the reports of the failed tests.
+   */
+  public List<Report> getFailures() {
+    synchronized(failures) {
+      return new ArrayList<>(failures);
+    }
+  }
+
+  /**
+   * Returns the durations in nanoseconds of all the tests (in no specific order)
+   * or an empty array if the durations are not recorded.
+   */
+  public long[] getDurations() {
+    if (stripes == null) {
+      return new long[0];
+    }
+    int size = 0;
+    for(DurationStripe stripe: stripes) {
+      size += stripe.size();
+    }
+    long[] durations = new long[size];
+    int offset = 0;
+    for(DurationStripe stripe: stripes) {
+      offset = stripe.copyTo(durations, offset);
+    }
+    return (offset == size)? durations: Arrays.copyOf(durations, offset);
+  }
+
+  @Override
+  public String toString() {
+    return "Among " + getTestCount() + " report(s), " + getFailedCount() + " failed.";
+  }
+}
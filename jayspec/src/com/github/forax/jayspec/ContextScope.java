@@ -0,0 +1,115 @@
+package com.github.forax.jayspec;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+/**
+ * Binds a value during the execution of an action, the value is visible by the code
+ * executed by the action in the current thread.
+ *
+ * On a JDK 25+, the value is bound with a ScopedValue (looked up at runtime),
+ * so it's also visible by the subtasks forked by a structured task scope
+ * and there is nothing to clean up, on older JDKs a ThreadLocal is used
+ * (ScopedValue is a preview API before JDK 25).
+ *
+ * @param <T> the type of the value.
+ */
+abstract class ContextScope<T> {
+  /**
+   * Returns the value bound by the current thread or null.
+   */
+  abstract T get();
+
+  /**
+   * Runs the action with the value bound.
+   */
+  abstract void runWhere(T value, Runnable action);
+
+  static <T> ContextScope<T> create() {
+    if (NEW_INSTANCE == null || WHERE == null || RUN == null || IS_BOUND == null || GET == null) {
+      return new ThreadLocalScope<>();
+    }
+    return new ScopedValueScope<>();
+  }
+
+  private static final MethodHandle NEW_INSTANCE;
+  private static final MethodHandle WHERE;
+  private static final MethodHandle RUN;
+  private static final MethodHandle IS_BOUND;
+  private static final MethodHandle GET;
+  static {
+    // ScopedValue is a preview API before JDK 25
+    Class<?> scopedValueClass = (JdkSupport.featureVersion() >= 25)? JdkSupport.findClass("java.lang.ScopedValue"): null;
+    Class<?> carrierClass = (scopedValueClass == null)? null: JdkSupport.findClass("java.lang.ScopedValue$Carrier");
+    if (carrierClass == null) {
+      NEW_INSTANCE = WHERE = RUN = IS_BOUND = GET = null;
+    } else {
+      NEW_INSTANCE = JdkSupport.findStatic(scopedValueClass, "newInstance",
+          MethodType.methodType(scopedValueClass), MethodType.methodType(Object.class));
+      WHERE = JdkSupport.findStatic(scopedValueClass, "where",
+          MethodType.methodType(carrierClass, scopedValueClass, Object.class),
+          MethodType.methodType(Object.class, Object.class, Object.class));
+      RUN = JdkSupport.findVirtual(carrierClass, "run",
+          MethodType.methodType(void.class, Runnable.class), MethodType.methodType(void.class, Object.class, Runnable.class));
+      IS_BOUND = JdkSupport.findVirtual(scopedValueClass, "isBound",
+          MethodType.methodType(boolean.class), MethodType.methodType(boolean.class, Object.class));
+      GET = JdkSupport.findVirtual(scopedValueClass, "get",
+          MethodType.methodType(Object.class), MethodType.methodType(Object.class, Object.class));
+    }
+  }
+
+  private static final class ScopedValueScope<T> extends ContextScope<T> {
+    private final Object scopedValue;
+
+    ScopedValueScope() {
+      try {
+        scopedValue = (Object)NEW_INSTANCE.invokeExact();
+      } catch (Throwable t) {
+        throw JdkSupport.rethrow(t);
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    T get() {
+      try {
+        return ((boolean)IS_BOUND.invokeExact(scopedValue))? (T)(Object)GET.invokeExact(scopedValue): null;
+      } catch (Throwable t) {
+        throw JdkSupport.rethrow(t);
+      }
+    }
+
+    @Override
+    void runWhere(T value, Runnable action) {
+      try {
+        RUN.invokeExact((Object)WHERE.invokeExact(scopedValue, (Object)value), action);
+      } catch (Throwable t) {
+        throw JdkSupport.rethrow(t);
+      }
+    }
+  }
+
+  private static final class ThreadLocalScope<T> extends ContextScope<T> {
+    private final ThreadLocal<T> threadLocal = new ThreadLocal<>();
+
+    @Override
+    T get() {
+      return threadLocal.get();
+    }
+
+    @Override
+    void runWhere(T value, Runnable action) {
+      T oldValue = threadLocal.get();
+      threadLocal.set(value);
+      try {
+        action.run();
+      } finally {
+        if (oldValue == null) {
+          threadLocal.remove();
+        } else {
+          threadLocal.set(oldValue);
+        }
+      }
+    }
+  }
+}
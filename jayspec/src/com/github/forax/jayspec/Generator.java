@@ -0,0 +1,275 @@
+package com.github.forax.jayspec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Generates the values of a property, see {@link JayAssertion#forAll(Generator, JayAssertion.Property)}.
+ *
+ * A generator should only use the random passed as argument so the values are reproducible,
+ * the size is a hint that grows with the number of tries, small values are generated first.
+ *
+ * @param <T> the type of the generated values.
+ */
+@FunctionalInterface
+public interface Generator<T> {
+  T generate(SplittableRandom random, int size);
+
+  /**
+   * Returns values smaller than the value taken as argument, the simplest first,
+   * they are used to find a smaller counterexample of a property.
+   * By default, a value can not be shrunk.
+   */
+  default List<T> shrink(T value) {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns a generator that applies the mapper on the values of the current generator,
+   * the values of the returned generator are not shrunk.
+   */
+  default <R> Generator<R> map(Function<? super T, ? extends R> mapper) {
+    return (random, size) -> mapper.apply(generate(random, size));
+  }
+
+  public static Generator<Boolean> booleans() {
+    return new Generator<Boolean>() {
+      @Override
+      public Boolean generate(SplittableRandom random, int size) {
+        return random.nextBoolean();
+      }
+      @Override
+      public List<Boolean> shrink(Boolean value) {
+        return value? Collections.singletonList(false): Collections.emptyList();
+      }
+    };
+  }
+
+  /**
+   * Returns a generator of small ints, around zero, with some ints of the whole range.
+   */
+  public static Generator<Integer> ints() {
+    return new Generator<Integer>() {
+      @Override
+      public Integer generate(SplittableRandom random, int size) {
+        if (random.nextInt(10) == 0) {
+          return random.nextInt();
+        }
+        return random.nextInt(2 * size + 1) - size;
+      }
+      @Override
+      public List<Integer> shrink(Integer value) {
+        return shrinkInt(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+      }
+    };
+  }
+
+  /**
+   * Returns a generator of ints between min and max (both included).
+   */
+  public static Generator<Integer> ints(int min, int max) {
+    if (min > max) {
+      throw new IllegalArgumentException("min > max " + min + " " + max);
+    }
+    return new Generator<Integer>() {
+      @Override
+      public Integer generate(SplittableRandom random, int size) {
+        return (int)random.nextLong(min, max + 1L);
+      }
+      @Override
+      public List<Integer> shrink(Integer value) {
+        return shrinkInt(value, min, max);
+      }
+    };
+  }
+
+  /**
+   * Returns a generator of small longs, around zero, with some longs of the whole range.
+   */
+  public static Generator<Long> longs() {
+    return new Generator<Long>() {
+      @Override
+      public Long generate(SplittableRandom random, int size) {
+        if (random.nextInt(10) == 0) {
+          return random.nextLong();
+        }
+        return (long)random.nextInt(2 * size + 1) - size;
+      }
+      @Override
+      public List<Long> shrink(Long value) {
+        return shrinkLong(value, Long.MIN_VALUE, Long.MAX_VALUE);
+      }
+    };
+  }
+
+  /**
+   * Returns a generator of doubles between -size and size.
+   */
+  public static Generator<Double> doubles() {
+    return new Generator<Double>() {
+      @Override
+      public Double generate(SplittableRandom random, int size) {
+        return (random.nextDouble() * 2 - 1) * size;
+      }
+      @Override
+      public List<Double> shrink(Double value) {
+        if (value == 0.0 || value.isNaN()) {
+          return Collections.emptyList();
+        }
+        ArrayList<Double> values = new ArrayList<>();
+        values.add(0.0);
+        if (value.isInfinite()) {
+          values.add(Math.copySign(Double.MAX_VALUE, value));
+          return values;
+        }
+        // the cast to long saturates, so only the values in the range of a long are rounded
+        if (Math.abs(value) < 0x1p63) {
+          double rounded = (double)(long)value.doubleValue();
+          if (rounded != value && rounded != 0.0) {
+            values.add(rounded);
+          }
+        }
+        // halving stops when the value is as small as the precision of 1.0,
+        // otherwise a counterexample near zero is halved down to the subnormals
+        if (Math.abs(value) > Math.ulp(1.0)) {
+          values.add(value / 2);
+        }
+        return values;
+      }
+    };
+  }
+
+  /**
+   * Returns a generator of strings of printable ASCII characters,
+   * the length of a string is at most the size.
+   */
+  public static Generator<String> strings() {
+    return new Generator<String>() {
+      @Override
+      public String generate(SplittableRandom random, int size) {
+        char[] chars = new char[random.nextInt(size + 1)];
+        for(int i = 0; i < chars.length; i++) {
+          chars[i] = (char)random.nextInt(' ', '~' + 1);
+        }
+        return new String(chars);
+      }
+      @Override
+      public List<String> shrink(String value) {
+        ArrayList<String> values = new ArrayList<>();
+        for(List<Character> list: shrinkList(toList(value), character -> Collections.emptyList())) {
+          StringBuilder builder = new StringBuilder(list.size());
+          list.forEach(builder::append);
+          values.add(builder.toString());
+        }
+        return values;
+      }
+      private List<Character> toList(String value) {
+        ArrayList<Character> list = new ArrayList<>(value.length());
+        for(int i = 0; i < value.length(); i++) {
+          list.add(value.charAt(i));
+        }
+        return list;
+      }
+    };
+  }
+
+  /**
+   * Returns a generator of lists which elements are generated by the element generator,
+   * the length of a list is at most the size.
+   */
+  public static <E> Generator<List<E>> lists(Generator<E> elementGenerator) {
+    return new Generator<List<E>>() {
+      @Override
+      public List<E> generate(SplittableRandom random, int size) {
+        int length = random.nextInt(size + 1);
+        ArrayList<E> list = new ArrayList<>(length);
+        for(int i = 0; i < length; i++) {
+          list.add(elementGenerator.generate(random, size));
+        }
+        return list;
+      }
+      @Override
+      public List<List<E>> shrink(List<E> value) {
+        return shrinkList(value, elementGenerator::shrink);
+      }
+    };
+  }
+
+  /**
+   * Returns a generator that picks one of the values.
+   */
+  @SafeVarargs
+  public static <T> Generator<T> of(T... values) {
+    if (values.length == 0) {
+      throw new IllegalArgumentException("no value");
+    }
+    // not Arrays.asList(values), passing the varargs array to another varargs method is a [varargs] warning
+    ArrayList<T> copy = new ArrayList<>(values.length);
+    for(T value: values) {
+      copy.add(value);
+    }
+    List<T> list = Collections.unmodifiableList(copy);
+    return new Generator<T>() {
+      @Override
+      public T generate(SplittableRandom random, int size) {
+        return list.get(random.nextInt(list.size()));
+      }
+      @Override
+      public List<T> shrink(T value) {  // the first values are the simplest
+        int index = list.indexOf(value);
+        return (index <= 0)? Collections.emptyList(): list.subList(0, index);
+      }
+    };
+  }
+
+  // the values between the value and the value the nearest to zero in [min, max], the nearest first
+  static List<Integer> shrinkInt(int value, int min, int max) {
+    ArrayList<Integer> values = new ArrayList<>();
+    for(long shrunk: shrinkLong(value, min, max)) {
+      values.add((int)shrunk);
+    }
+    return values;
+  }
+  static List<Long> shrinkLong(long value, long min, long max) {
+    // the origin is zero or the bound the nearest to zero, so value - origin doesn't overflow
+    long origin = Math.max(min, Math.min(max, 0));
+    ArrayList<Long> values = new ArrayList<>();
+    for(long distance = value - origin; distance != 0; distance /= 2) {
+      values.add(value - distance);
+    }
+    return values;
+  }
+
+  // the number of elements removed or shrunk one by one, so shrinking a big list stays cheap
+  static final int SHRINK_ELEMENT_LIMIT = 32;
+
+  // empty list, halves, the list with one element removed, then the list with one element shrunk
+  static <E> List<List<E>> shrinkList(List<E> value, Function<? super E, ? extends List<E>> elementShrinker) {
+    int size = value.size();
+    if (size == 0) {
+      return Collections.emptyList();
+    }
+    ArrayList<List<E>> values = new ArrayList<>();
+    values.add(Collections.emptyList());
+    if (size > 1) {
+      values.add(new ArrayList<>(value.subList(0, size / 2)));
+      values.add(new ArrayList<>(value.subList(size / 2, size)));
+    }
+    for(int i = 0; i < Math.min(size, SHRINK_ELEMENT_LIMIT); i++) {
+      ArrayList<E> list = new ArrayList<>(value);
+      list.remove(i);
+      values.add(list);
+    }
+    for(int i = 0; i < Math.min(size, SHRINK_ELEMENT_LIMIT); i++) {
+      for(E element: elementShrinker.apply(value.get(i))) {
+        ArrayList<E> list = new ArrayList<>(value);
+        list.set(i, element);
+        values.add(list);
+      }
+    }
+    return values;
+  }
+}
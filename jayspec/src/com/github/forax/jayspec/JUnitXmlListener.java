@@ -0,0 +1,147 @@
+package com.github.forax.jayspec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.forax.jayspec.JaySpec.Example;
+import com.github.forax.jayspec.JaySpec.Listener;
+
+/**
+ * A listener that writes the reports in the XML format of JUnit, each test is written
+ * as a testcase as soon as it's received, by example
+ * <pre>
+ * &lt;testcase classname="java.util.ArrayList" name="an empty list, it should has a size == 0" time="0.000001"/&gt;
+ * </pre>
+ * All testcases are in one testsuite, the counters of the testsuite are written
+ * in place of their placeholders when the listener is closed.
+ * A skipped or cached example is written as a skipped testcase.
+ */
+public class JUnitXmlListener implements Listener, Closeable {
+  private static final String COUNTERS_PLACEHOLDER = counters(0, 0, 0, 0);
+
+  private final ChannelWriter writer;
+  private final long countersPosition;
+  private final LongAdder testCount = new LongAdder();
+  private final LongAdder failureCount = new LongAdder();
+  private final LongAdder skippedCount = new LongAdder();
+  private final LongAdder totalDuration = new LongAdder();
+
+  public JUnitXmlListener(Path path) throws IOException {
+    this.writer = new ChannelWriter(path);
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"jayspec\" ");
+    this.countersPosition = writer.position();
+    writer.write(COUNTERS_PLACEHOLDER + ">\n");
+  }
+
+  // the counters have a fixed width so they can be written in place of the placeholder
+  private static String counters(long tests, long failures, long skipped, long duration) {
+    return String.format(Locale.ROOT, "tests=\"%010d\" failures=\"%010d\" errors=\"0\" skipped=\"%010d\" time=\"%020.9f\"",
+        tests, failures, skipped, duration / 1_000_000_000.0);
+  }
+
+  @Override
+  public void testFinished(Example example, String description, Throwable error, long duration) {
+    testCount.increment();
+    totalDuration.add(duration);
+    StringBuilder builder = testcase(new StringBuilder(256), example, example.getDescription() + ", it should " + description);
+    builder.append(" time=\"").append(String.format(Locale.ROOT, "%.9f", duration / 1_000_000_000.0)).append('"');
+    if (error == null) {
+      write(builder.append("/>\n"));
+      return;
+    }
+    failureCount.increment();
+    builder.append(">\n    <failure");
+    attribute(builder, "message", String.valueOf(error.getMessage()));
+    attribute(builder, "type", error.getClass().getName()).append('>');
+    StringWriter stackTrace = new StringWriter();
+    error.printStackTrace(new PrintWriter(stackTrace));
+    escape(builder, stackTrace.toString(), false).append("</failure>\n  </testcase>\n");
+    write(builder);
+  }
+
+  @Override
+  public void exampleSkipped(Example example) {
+    skipped(example, "skipped");
+  }
+
+  @Override
+  public void exampleCached(Example example, int testCount) {
+    skipped(example, "passed during a previous run");
+  }
+
+  private void skipped(Example example, String message) {
+    testCount.increment();
+    skippedCount.increment();
+    StringBuilder builder = testcase(new StringBuilder(256), example, example.getDescription());
+    attribute(builder.append(">\n    <skipped"), "message", message).append("/>\n  </testcase>\n");
+    write(builder);
+  }
+
+  private static StringBuilder testcase(StringBuilder builder, Example example, String name) {
+    builder.append("  <testcase");
+    attribute(builder, "classname", example.getSpec().getDeclaredClass().getName());
+    return attribute(builder, "name", name);
+  }
+
+  private void write(CharSequence text) {
+    try {
+      writer.write(text);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static StringBuilder attribute(StringBuilder builder, String name, String value) {
+    return escape(builder.append(' ').append(name).append("=\""), value, true).append('"');
+  }
+
+  // the control characters are not allowed in XML 1.0, they are replaced by '?'
+  private static StringBuilder escape(StringBuilder builder, String text, boolean attribute) {
+    for(int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch(c) {
+      case '&':
+        builder.append("&amp;");
+        break;
+      case '<':
+        builder.append("&lt;");
+        break;
+      case '>':
+        builder.append("&gt;");
+        break;
+      case '"':
+        builder.append(attribute? "&quot;": "\"");
+        break;
+      case '\n':
+        builder.append(attribute? "&#10;": "\n");
+        break;
+      case '\r':
+        builder.append(attribute? "&#13;": "\r");
+        break;
+      case '\t':
+        builder.append(attribute? "&#9;": "\t");
+        break;
+      default:
+        builder.append((c < 0x20)? '?': c);
+      }
+    }
+    return builder;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      writer.write("</testsuite>\n");
+      writer.writeAt(countersPosition,
+          counters(testCount.sum(), failureCount.sum(), skippedCount.sum(), totalDuration.sum()));
+    } finally {
+      writer.close();
+    }
+  }
+}
@@ -4,8 +4,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -13,25 +17,64 @@ import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.BiFunction;
-import java.util.function.DoublePredicate;
-import java.util.function.Function;
-import java.util.function.IntPredicate;
-import java.util.function.LongPredicate;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntUnaryOperator;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 public class JayAssertion {
-  static class AbstractAssert {
+  static abstract class AbstractAssert {
     final Checker checker;
+    // an assert obtained by navigation (size(), get(), etc) keeps a link to the assert
+    // it comes from and the navigation step, the text of the navigation is only computed on failure
+    final AbstractAssert parent;  // null if not obtained by navigation
+    final Object step;            // a prefix (a String) or a method reference (a Serializable)
 
     AbstractAssert(Checker checker) {
       this.checker = checker;
+      this.parent = null;
+      this.step = null;
+    }
+    AbstractAssert(AbstractAssert parent, Object step) {
+      this.checker = parent.checker;
+      this.parent = parent;
+      this.step = step;
+    }
+    
+    abstract Object boxedActual();
+    
+    // only called when the assertion doesn't hold, so a passing assertion
+    // never boxes the actual value nor builds its message
+    void fail(Object actual, Supplier<String> textSupplier) {
+      if (parent == null) {
+        checker.check(actual, __ -> false, textSupplier);
+        return;
+      }
+      AbstractAssert root = this;
+      while(root.parent != null) {
+        root = root.parent;
+      }
+      checker.check(root.boxedActual(), __ -> false, () -> navigationText(textSupplier.get()));
+    }
+    
+    private String navigationText(String text) {
+      for(AbstractAssert current = this; current.parent != null; current = current.parent) {
+        Object step = current.step;
+        text = (step instanceof String)? step + text: asMethodName(text, (Serializable)step);
+      }
+      return text;
     }
   }
   
+  // creates the assert of an element of a collection
+  @FunctionalInterface
+  interface AssertFactory<T, A> {
+    A create(T actual, AbstractAssert parent, Object step);
+  }
+  
   public static class Assert<E> extends AbstractAssert {
     final E actual;
     
@@ -39,27 +82,41 @@ public class JayAssertion {
       super(checker);
       this.actual = actual;
     }
+    Assert(E actual, AbstractAssert parent, Object step) {
+      super(parent, step);
+      this.actual = actual;
+    }
+    
+    @Override
+    Object boxedActual() {
+      return actual;
+    }
     
     void check(Predicate<? super E> assertion, Supplier<String> textSupplier){
-      checker.check(actual, assertion, textSupplier);
+      if (!assertion.test(actual)) {
+        fail(actual, textSupplier);
+      }
     }
     void check(Predicate<? super E> assertion, String text){
-      check(assertion, () -> text);
+      if (!assertion.test(actual)) {
+        fail(actual, () -> text);
+      }
     }
     
-    
-    
-    Checker delegateChecker(Function<String,String> function) {
-      class DelegateChecker {
-        DelegateChecker() {
-          // not public
-        }
-        <T> void delegate(T actual, Predicate<? super T> predicate, Supplier<String> text) {
-          check(a -> predicate.test(actual), () -> function.apply(text.get()));
-        }
+    // a navigation (length(), get(), etc) from a null value fails the assertion,
+    // if the checker doesn't throw (soft assertions) there is nothing to navigate to
+    void requireNonNullActual(String step, String kind) {
+      if (actual == null) {
+        fail(null, () -> step + "%s " + kind);
+        throw new NullPointerException(step + "null " + kind);
+      }
+    }
+    // same for a null argument, by example mismatchCount(null)
+    void requireNonNullArgument(Object argument, String step, String kind) {
+      if (argument == null) {
+        fail(boxedActual(), () -> step + "%s with a null " + kind);
+        throw new NullPointerException(step + "a null " + kind);
       }
-      
-      return new DelegateChecker()::delegate;
     }
     
     public void isNull() {
@@ -69,16 +126,16 @@ public class JayAssertion {
       check(a -> a != null, "%s != null");
     }
     public void isSameAs(Object element) {
-      check(a -> a == element, "%s == " + element);
+      check(a -> a == element, () -> "%s == " + element);
     }
     public void isNotSameAs(Object element) {
-      check(a -> a != element, "%s != " + element);
+      check(a -> a != element, () -> "%s != " + element);
     }
     public void isEqualTo(Object element) {
-      check(a -> Objects.equals(a, element), "%s equals " + element);
+      check(a -> Objects.equals(a, element), () -> "%s equals " + element);
     }
     public void isNotEqualTo(Object element) {
-      check(a -> !Objects.equals(a, element), "%s not equals " + element);
+      check(a -> !Objects.equals(a, element), () -> "%s not equals " + element);
     }
     
     @FunctionalInterface
@@ -96,22 +153,22 @@ public class JayAssertion {
     
     public <R> Assert<R> get(ToObjectFunction<? super E, ? extends R> mapper) {
       //FIXME use diamond when Eclipse will support it
-      return new Assert<R>(mapper.applyAsObject(actual), delegateChecker(s -> asMethodName(s, mapper)));
+      return new Assert<R>(mapper.applyAsObject(actual), this, mapper);
     }
     public AssertBoolean getBoolean(ToBooleanFunction<? super E> mapper) {
-      return new AssertBoolean(mapper.applyAsBoolean(actual), delegateChecker(s -> asMethodName(s, mapper)));
+      return new AssertBoolean(mapper.applyAsBoolean(actual), this, mapper);
     }
     public AssertInt getInt(ToIntFunction<? super E> mapper) {
-      return new AssertInt(mapper.applyAsInt(actual), delegateChecker(s -> asMethodName(s, mapper)));
+      return new AssertInt(mapper.applyAsInt(actual), this, mapper);
     }
     public AssertLong getInt(ToLongFunction<? super E> mapper) {
-      return new AssertLong(mapper.applyAsLong(actual), delegateChecker(s -> asMethodName(s, mapper)));
+      return new AssertLong(mapper.applyAsLong(actual), this, mapper);
     }
     public AssertFloat getFloat(ToFloatFunction<? super E> mapper) {
-      return new AssertFloat(mapper.applyAsFloat(actual), delegateChecker(s -> asMethodName(s, mapper)));
+      return new AssertFloat(mapper.applyAsFloat(actual), this, mapper);
     }
     public AssertDouble getDouble(ToDoubleFunction<? super E> mapper) {
-      return new AssertDouble(mapper.applyAsDouble(actual), delegateChecker(s -> asMethodName(s, mapper)));
+      return new AssertDouble(mapper.applyAsDouble(actual), this, mapper);
     }
   }
   
@@ -119,21 +176,24 @@ public class JayAssertion {
     AssertComparable(E actual, Checker checker) {
       super(actual, checker);
     }
+    AssertComparable(E actual, AbstractAssert parent, Object step) {
+      super(actual, parent, step);
+    }
     
     public void isLessThan(E element) {
-      check(a -> a.compareTo(element) < 0, "%s < " + element);
+      check(a -> a.compareTo(element) < 0, () -> "%s < " + element);
     }
     public void isLessOrEqualThan(E element) {
-      check(a -> a.compareTo(element) <= 0, "%s <= " + element);
+      check(a -> a.compareTo(element) <= 0, () -> "%s <= " + element);
     }
     public void isGreaterThan(E element) {
-      check(a -> a.compareTo(element) > 0, "%s > " + element);
+      check(a -> a.compareTo(element) > 0, () -> "%s > " + element);
     }
     public void isGreaterOrEqualThan(E element) {
-      check(a -> a.compareTo(element) >= 0, "%s >= " + element);
+      check(a -> a.compareTo(element) >= 0, () -> "%s >= " + element);
     }
     public void isInRange(E first, E last) {
-      check(a -> a.compareTo(first) >= 0 && a.compareTo(last) <= 0, "%s in [" + first + ".." + last + ']');
+      check(a -> a.compareTo(first) >= 0 && a.compareTo(last) <= 0, () -> "%s in [" + first + ".." + last + ']');
     }
   }
   
@@ -141,88 +201,101 @@ public class JayAssertion {
     AssertEntry(E actual, Checker checker) {
       super(actual, checker);
     }
+    AssertEntry(E actual, AbstractAssert parent, Object step) {
+      super(actual, parent, step);
+    }
     
     public void isEqualTo(K key, V value) {
       SimpleImmutableEntry<K, V> entry = new SimpleImmutableEntry<>(key, value);
-      check(a -> Objects.equals(a, entry), "%s equals " + entry);
+      check(a -> Objects.equals(a, entry), () -> "%s equals " + entry);
     }
     public void isNotEqualTo(K key, V value) {
       SimpleImmutableEntry<K, V> entry = new SimpleImmutableEntry<>(key, value);
-      check(a -> !Objects.equals(a, entry), "%s not equals " + entry);
+      check(a -> !Objects.equals(a, entry), () -> "%s not equals " + entry);
     }
     public Assert<K> key() {
-      return new Assert<>(actual.getKey(), delegateChecker(s -> "key of " + s));
+      return new Assert<>(actual.getKey(), this, "key of ");
     }
     public Assert<V> value() {
-      return new Assert<>(actual.getValue(), delegateChecker(s -> "value of " + s));
+      return new Assert<>(actual.getValue(), this, "value of ");
     }
   }
   
   public static class AssertCollection<T, E extends Collection<T>, A extends Assert<T>> extends Assert<E> {
-    final BiFunction<? super T, Checker, ? extends A> elementMapper;
+    final AssertFactory<? super T, ? extends A> elementMapper;
     
-    AssertCollection(E actual, Checker checker, BiFunction<? super T, Checker, ? extends A> mapper) {
+    AssertCollection(E actual, Checker checker, AssertFactory<? super T, ? extends A> mapper) {
       super(actual, checker);
       this.elementMapper = mapper;
     }
+    AssertCollection(E actual, AbstractAssert parent, Object step, AssertFactory<? super T, ? extends A> mapper) {
+      super(actual, parent, step);
+      this.elementMapper = mapper;
+    }
     
     public void isEmpty() {
       check(a -> a.isEmpty(), "%s is empty");
     }
     public AssertInt size() {
-      return new AssertInt(actual.size(), delegateChecker(s -> "size of " + s));
+      return new AssertInt(actual.size(), this, "size of ");
     }
     public void contains(Object o) {
-      check(a -> a.contains(o), "%s contains " + o);
+      check(a -> a.contains(o), () -> "%s contains " + o);
     }
     public final void containsAll(Object... objects) {
       containsAll(Arrays.asList(objects));
     }
     public void containsAll(Collection<?> objects) {
-      check(a -> a.containsAll(objects), "%s contains all" + objects);
+      check(a -> a.containsAll(objects), () -> "%s contains all" + objects);
     }
     public A first() {
-      return elementMapper.apply(actual.iterator().next(), delegateChecker(s -> "first of " + s));
+      return elementMapper.create(actual.iterator().next(), this, "first of ");
     }
   }
   
   public static class AssertList<T, E extends List<T>, A extends Assert<T>> extends AssertCollection<T, E, A> {
-    AssertList(E actual, Checker checker, BiFunction<? super T, Checker, ? extends A> elementMapper) {
+    AssertList(E actual, Checker checker, AssertFactory<? super T, ? extends A> elementMapper) {
       super(actual, checker, elementMapper);
     }
+    AssertList(E actual, AbstractAssert parent, Object step, AssertFactory<? super T, ? extends A> elementMapper) {
+      super(actual, parent, step, elementMapper);
+    }
     
     public A get(int index) {
-      return elementMapper.apply(actual.get(index), delegateChecker(s -> "get object at " + s));
+      return elementMapper.create(actual.get(index), this, "get object at ");
     }
     public AssertInt indexOf(Object object) {
-      return new AssertInt(actual.indexOf(object), delegateChecker(s -> "index of " + s));
+      return new AssertInt(actual.indexOf(object), this, "index of ");
     }
     public AssertInt lastIndexOf(Object object) {
-      return new AssertInt(actual.indexOf(object), delegateChecker(s -> "last index of " + s));
+      return new AssertInt(actual.indexOf(object), this, "last index of ");
     }
     public A last() {
-      return elementMapper.apply(actual.listIterator(actual.size()).previous(), delegateChecker(s -> "last " + s));
+      return elementMapper.create(actual.listIterator(actual.size()).previous(), this, "last ");
     }
   }
   
   public static class AssertNavigableSet<T, E extends NavigableSet<T>, A extends Assert<T>> extends AssertCollection<T, E, A> {
-    AssertNavigableSet(E actual, Checker checker, BiFunction<? super T, Checker, ? extends A> elementMapper) {
+    AssertNavigableSet(E actual, Checker checker, AssertFactory<? super T, ? extends A> elementMapper) {
       super(actual, checker, elementMapper);
     }
+    AssertNavigableSet(E actual, AbstractAssert parent, Object step, AssertFactory<? super T, ? extends A> elementMapper) {
+      super(actual, parent, step, elementMapper);
+    }
     
     @Override
     public A first() {
-      return elementMapper.apply(actual.first(), delegateChecker(s -> "first of " + s));
+      return elementMapper.create(actual.first(), this, "first of ");
     }
     public A last() {
-      return elementMapper.apply(actual.last(), delegateChecker(s -> "last of " + s));
+      return elementMapper.create(actual.last(), this, "last of ");
     }
   }
   
   public static class AssertMap<K, V, E extends Map<K,V>, A extends Assert<K>, C extends AssertCollection<K, ? extends Set<K>, A>> extends Assert<E> {
-    final BiFunction<E, Checker, C> keySetMapper;
+    final AssertFactory<E, C> keySetMapper;
     
-    AssertMap(E actual, Checker checker, BiFunction<E, Checker, C> keySetMapper) {
+    AssertMap(E actual, Checker checker, AssertFactory<E, C> keySetMapper) {
       super(actual, checker);
       this.keySetMapper = keySetMapper;
     }
@@ -231,19 +304,19 @@ public class JayAssertion {
       check(a -> a.isEmpty(), "%s is empty");
     }
     public AssertInt size() {
-      return new AssertInt(actual.size(), delegateChecker(s -> "size of " + s));
+      return new AssertInt(actual.size(), this, "size of ");
     }
     public void containsKey(Object o) {
-      check(a -> a.containsKey(o), "%s contains " + o);
+      check(a -> a.containsKey(o), () -> "%s contains " + o);
     }
     public C keySet() {
-      return keySetMapper.apply(actual, delegateChecker(s -> "keys of " + s));
+      return keySetMapper.create(actual, this, "keys of ");
     }
     public AssertCollection<V, Collection<V>, Assert<V>> values() {
-      return new AssertCollection<>(actual.values(), delegateChecker(s -> "values of " + s), Assert<V>::new);
+      return new AssertCollection<>(actual.values(), this, "values of ", Assert<V>::new);
     }
     public AssertCollection<Map.Entry<K, V>, Set<Map.Entry<K,V>>, AssertEntry<K,V, Map.Entry<K, V>>> entrySet() {
-      return new AssertCollection<>(actual.entrySet(), delegateChecker(s -> "entries of " + s), AssertEntry<K,V, Map.Entry<K, V>>::new);
+      return new AssertCollection<>(actual.entrySet(), this, "entries of ", AssertEntry<K,V, Map.Entry<K, V>>::new);
     }
   }
   
@@ -254,25 +327,38 @@ public class JayAssertion {
       super(checker);
       this.actual = actual;
     }
+    AssertBoolean(boolean actual, AbstractAssert parent, Object step) {
+      super(parent, step);
+      this.actual = actual;
+    }
     
-    @FunctionalInterface
-    interface BooleanPredicate { boolean test(boolean t); }
+    @Override
+    Object boxedActual() {
+      return actual;
+    }
     
-    private void check(BooleanPredicate predicate, String text){
-      checker.check(actual, predicate::test, () -> text);
+    private void check(boolean result, String text){
+      if (!result) {
+        fail(actual, () -> text);
+      }
+    }
+    private void check(boolean result, String operator, boolean element){
+      if (!result) {
+        fail(actual, () -> "%s " + operator + ' ' + element);
+      }
     }
     
     public void isTrue() {
-      check(a -> a == true, "%s == true");
+      check(actual == true, "%s == true");
     }
     public void isFalse() {
-      check(a -> a == false, "%s == false");
+      check(actual == false, "%s == false");
     }
     public void isEqualTo(boolean element) {
-      check(a -> a == element, "%s == " + element);
+      check(actual == element, "==", element);
     }
     public void isNotEqualsTo(boolean element) {
-      check(a -> a != element, "%s != " + element);
+      check(actual != element, "!=", element);
     }
   }
   
@@ -283,31 +369,47 @@ public class JayAssertion {
       super(checker);
       this.actual = actual;
     }
+    AssertInt(int actual, AbstractAssert parent, Object step) {
+      super(parent, step);
+      this.actual = actual;
+    }
     
-    private void check(IntPredicate predicate, String text){
-      checker.check(actual, predicate::test, () -> text);
+    @Override
+    Object boxedActual() {
+      return actual;
+    }
+    
+    private void check(boolean result, String operator, int element){
+      if (!result) {
+        fail(actual, () -> "%s " + operator + ' ' + element);
+      }
+    }
+    private void checkInRange(boolean result, int first, int last){
+      if (!result) {
+        fail(actual, () -> "%s in [" + first + ".." + last + ']');
+      }
     }
     
     public void isEqualTo(int element) {
-      check(a -> a == element, "%s == " + element);
+      check(actual == element, "==", element);
     }
     public void isNotEqualsTo(int element) {
-      check(a -> a != element, "%s != " + element);
+      check(actual != element, "!=", element);
     }
     public void isLessThan(int element) {
-      check(a -> a < element, "%s < " + element);
+      check(actual < element, "<", element);
     }
     public void isLessOrEqualThan(int element) {
-      check(a -> a <= element, "%s <= " + element);
+      check(actual <= element, "<=", element);
     }
     public void isGreaterThan(int element) {
-      check(a -> a > element, "%s > " + element);
+      check(actual > element, ">", element);
     }
     public void isGreaterOrEqualThan(int element) {
-      check(a -> a >= element, "%s >= " + element);
+      check(actual >= element, ">=", element);
     }
     public void isInRange(int first, int last) {
-      check(a -> a >= first && a <= last, "%s in [" + first + ".." + last + ']');
+      checkInRange(actual >= first && actual <= last, first, last);
     }
   }
   
@@ -318,31 +420,47 @@ public class JayAssertion {
       super(checker);
       this.actual = actual;
     }
+    AssertLong(long actual, AbstractAssert parent, Object step) {
+      super(parent, step);
+      this.actual = actual;
+    }
     
-    private void check(LongPredicate predicate, String text){
-      checker.check(actual, predicate::test, () -> text);
+    @Override
+    Object boxedActual() {
+      return actual;
+    }
+    
+    private void check(boolean result, String operator, long element){
+      if (!result) {
+        fail(actual, () -> "%s " + operator + ' ' + element);
+      }
+    }
+    private void checkInRange(boolean result, long first, long last){
+      if (!result) {
+        fail(actual, () -> "%s in [" + first + ".." + last + ']');
+      }
     }
     
     public void isEqualTo(long element) {
-      check(a -> a == element, "%s == " + element);
+      check(actual == element, "==", element);
     }
     public void isNotEqualsTo(long element) {
-      check(a -> a != element, "%s != " + element);
+      check(actual != element, "!=", element);
     }
     public void isLessThan(long element) {
-      check(a -> a < element, "%s < " + element);
+      check(actual < element, "<", element);
     }
     public void isLessOrEqualThan(long element) {
-      check(a -> a <= element, "%s <= " + element);
+      check(actual <= element, "<=", element);
     }
     public void isGreaterThan(long element) {
-      check(a -> a > element, "%s > " + element);
+      check(actual > element, ">", element);
     }
     public void isGreaterOrEqualThan(long element) {
-      check(a -> a >= element, "%s >= " + element);
+      check(actual >= element, ">=", element);
     }
     public void isInRange(long first, long last) {
-      check(a -> a >= first && a <= last, "%s in [" + first + ".." + last + ']');
+      checkInRange(actual >= first && actual <= last, first, last);
     }
   }
   
@@ -353,34 +471,47 @@ public class JayAssertion {
       super(checker);
       this.actual = actual;
     }
+    AssertFloat(float actual, AbstractAssert parent, Object step) {
+      super(parent, step);
+      this.actual = actual;
+    }
     
-    @FunctionalInterface
-    interface FloatPredicate { boolean test(float t); }
+    @Override
+    Object boxedActual() {
+      return actual;
+    }
     
-    private void check(FloatPredicate predicate, String text){
-      checker.check(actual, predicate::test, () -> text);
+    private void check(boolean result, String operator, float element){
+      if (!result) {
+        fail(actual, () -> "%s " + operator + ' ' + element);
+      }
+    }
+    private void checkInRange(boolean result, float first, float last){
+      if (!result) {
+        fail(actual, () -> "%s in [" + first + ".." + last + ']');
+      }
     }
     
     public void isEqualTo(float element) {
-      check(a -> a == element, "%s == " + element);
+      check(actual == element, "==", element);
     }
     public void isNotEqualsTo(float element) {
-      check(a -> a != element, "%s != " + element);
+      check(actual != element, "!=", element);
     }
     public void isLessThan(float element) {
-      check(a -> a < element, "%s < " + element);
+      check(actual < element, "<", element);
     }
     public void isLessOrEqualThan(float element) {
-      check(a -> a <= element, "%s <= " + element);
+      check(actual <= element, "<=", element);
     }
     public void isGreaterThan(float element) {
-      check(a -> a > element, "%s > " + element);
+      check(actual > element, ">", element);
     }
     public void isGreaterOrEqualThan(float element) {
-      check(a -> a >= element, "%s >= " + element);
+      check(actual >= element, ">=", element);
     }
     public void isInRange(float first, float last) {
-      check(a -> a >= first && a <= last, "%s in [" + first + ".." + last + ']');
+      checkInRange(actual >= first && actual <= last, first, last);
     }
   }
   
@@ -391,39 +522,777 @@ public class JayAssertion {
       super(checker);
       this.actual = actual;
     }
+    AssertDouble(double actual, AbstractAssert parent, Object step) {
+      super(parent, step);
+      this.actual = actual;
+    }
+    
+    @Override
+    Object boxedActual() {
+      return actual;
+    }
     
-    private void check(DoublePredicate predicate, String text){
-      checker.check(actual, predicate::test, () -> text);
+    private void check(boolean result, String operator, double element){
+      if (!result) {
+        fail(actual, () -> "%s " + operator + ' ' + element);
+      }
+    }
+    private void checkInRange(boolean result, double first, double last){
+      if (!result) {
+        fail(actual, () -> "%s in [" + first + ".." + last + ']');
+      }
     }
     
     public void isEqualTo(double element) {
-      check(a -> a == element, "%s == " + element);
+      check(actual == element, "==", element);
     }
     public void isNotEqualsTo(double element) {
-      check(a -> a != element, "%s != " + element);
+      check(actual != element, "!=", element);
     }
     public void isLessThan(double element) {
-      check(a -> a < element, "%s < " + element);
+      check(actual < element, "<", element);
     }
     public void isLessOrEqualThan(double element) {
-      check(a -> a <= element, "%s <= " + element);
+      check(actual <= element, "<=", element);
     }
     public void isGreaterThan(double element) {
-      check(a -> a > element, "%s > " + element);
+      check(actual > element, ">", element);
     }
     public void isGreaterOrEqualThan(double element) {
-      check(a -> a >= element, "%s >= " + element);
+      check(actual >= element, ">=", element);
     }
     public void isInRange(double first, double last) {
-      check(a -> a >= first && a <= last, "%s in [" + first + ".." + last + ']');
+      checkInRange(actual >= first && actual <= last, first, last);
+    }
+  }
+  
+  // the text of an array is truncated so a failure on a big array doesn't build a huge message
+  private static final int ARRAY_TEXT_LIMIT = 16;
+  
+  static String arrayText(int length, String prefix) {
+    if (length <= ARRAY_TEXT_LIMIT) {
+      return prefix;
+    }
+    return prefix.substring(0, prefix.length() - 1) + ", ...] (" + length + " elements)";
+  }
+  static String arrayText(byte[] array) {
+    return arrayText(array.length, Arrays.toString(Arrays.copyOf(array, Math.min(array.length, ARRAY_TEXT_LIMIT))));
+  }
+  // the text of isEqualTo() called with a value that is not an array, by example a boxed element
+  static String notAnArrayText(Object element) {
+    return "%s equals " + element + " (a " + element.getClass().getName() + ", not an array)";
+  }
+  static String arrayText(int[] array) {
+    return arrayText(array.length, Arrays.toString(Arrays.copyOf(array, Math.min(array.length, ARRAY_TEXT_LIMIT))));
+  }
+  static String arrayText(long[] array) {
+    return arrayText(array.length, Arrays.toString(Arrays.copyOf(array, Math.min(array.length, ARRAY_TEXT_LIMIT))));
+  }
+  static String arrayText(double[] array) {
+    return arrayText(array.length, Arrays.toString(Arrays.copyOf(array, Math.min(array.length, ARRAY_TEXT_LIMIT))));
+  }
+  
+  static String bufferText(ByteBuffer buffer) {
+    return buffer + " " + arrayText(buffer.remaining(), Arrays.toString(bufferBytes(buffer, 0, Math.min(buffer.remaining(), ARRAY_TEXT_LIMIT))));
+  }
+  // the bytes between from and to relative to the position, the position of the buffer is not changed
+  static byte[] bufferBytes(ByteBuffer buffer, int from, int to) {
+    byte[] bytes = new byte[to - from];
+    for(int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(buffer.position() + from + i);
     }
+    return bytes;
   }
   
+  @FunctionalInterface
+  interface RangeText {
+    String text(int from, int to);
+  }
+  
+  // the first mismatch is reported with the elements around it
+  private static final int MISMATCH_WINDOW = 8;
+  
+  static String mismatchText(int index, int actualLength, int expectedLength, RangeText actualText, RangeText expectedText) {
+    int from = Math.max(0, index - MISMATCH_WINDOW);
+    int actualTo = Math.min(actualLength, index + MISMATCH_WINDOW + 1);
+    int expectedTo = Math.min(expectedLength, index + MISMATCH_WINDOW + 1);
+    return " (first mismatch at index " + index +
+        ((actualLength != expectedLength)? ", length " + actualLength + " instead of " + expectedLength: "") +
+        ", elements from index " + from + " are " + actualText.text(from, actualTo) +
+        " instead of " + expectedText.text(from, expectedTo) + ')';
+  }
+  
+  // counts the indexes where the elements are different, the elements after the end of the shorter array
+  // are counted as mismatches, nextMismatch returns the index of the next mismatch from an index or -1
+  static int mismatchCount(int actualLength, int expectedLength, IntUnaryOperator nextMismatch) {
+    int length = Math.min(actualLength, expectedLength);
+    int count = Math.abs(actualLength - expectedLength);
+    for(int index = nextMismatch.applyAsInt(0); index != -1 && index < length; index = nextMismatch.applyAsInt(index + 1)) {
+      count++;
+    }
+    return count;
+  }
+  
+  public static class AssertByteArray extends Assert<byte[]> {
+    AssertByteArray(byte[] actual, Checker checker) {
+      super(actual, checker);
+    }
+    AssertByteArray(byte[] actual, AbstractAssert parent, Object step) {
+      super(actual, parent, step);
+    }
+    
+    @Override
+    Object boxedActual() {
+      return (actual == null)? null: arrayText(actual);
+    }
+    
+    private void check(boolean result, Supplier<String> textSupplier){
+      if (!result) {
+        fail(boxedActual(), textSupplier);
+      }
+    }
+    
+    public void isEmpty() {
+      check(actual != null && actual.length == 0, () -> "%s is empty");
+    }
+    public AssertInt length() {
+      requireNonNullActual("length of ", "array");
+      return new AssertInt(actual.length, this, "length of ");
+    }
+    public AssertInt get(int index) {
+      requireNonNullActual("get element at ", "array");
+      return new AssertInt(actual[index], this, "get element at ");
+    }
+    // isEqualTo(array) typed as an Object calls the methods of Assert, so they are redirected
+    // to the array comparison, any other value is not equal to an array
+    @Override
+    public void isEqualTo(Object element) {
+      if (element instanceof byte[]) {
+        isEqualTo((byte[])element);
+        return;
+      }
+      if (element != null) {  // by example an element boxed by isEqualTo(3)
+        check(false, () -> notAnArrayText(element));
+        return;
+      }
+      super.isEqualTo(element);
+    }
+    @Override
+    public void isNotEqualTo(Object element) {
+      if (element instanceof byte[]) {
+        isNotEqualTo((byte[])element);
+        return;
+      }
+      super.isNotEqualTo(element);
+    }
+    public void isEqualTo(byte... elements) {
+      if (actual == null || elements == null) {
+        check(actual == elements, () -> "%s equals " + ((elements == null)? null: arrayText(elements)));
+        return;
+      }
+      int index = ArrayMismatch.mismatch(actual, elements, 0);
+      check(index == -1, () -> "%s equals " + arrayText(elements) + mismatchText(index, actual.length, elements.length,
+          (from, to) -> Arrays.toString(Arrays.copyOfRange(actual, from, to)),
+          (from, to) -> Arrays.toString(Arrays.copyOfRange(elements, from, to))));
+    }
+    public void isNotEqualTo(byte... elements) {
+      if (actual == null || elements == null) {
+        check(actual != elements, () -> "%s not equals " + ((elements == null)? null: arrayText(elements)));
+        return;
+      }
+      check(ArrayMismatch.mismatch(actual, elements, 0) != -1, () -> "%s not equals " + arrayText(elements));
+    }
+    public AssertInt mismatchCount(byte... elements) {
+      requireNonNullActual("mismatch count of ", "array");
+      requireNonNullArgument(elements, "mismatch count of ", "array");
+      int count = JayAssertion.mismatchCount(actual.length, elements.length, from -> ArrayMismatch.mismatch(actual, elements, from));
+      return new AssertInt(count, this, "mismatch count of ");
+    }
+  }
+  
+  // compares the remaining bytes like ByteBuffer.equals(), the position of the buffers are not changed
+  public static class AssertByteBuffer extends Assert<ByteBuffer> {
+    AssertByteBuffer(ByteBuffer actual, Checker checker) {
+      super(actual, checker);
+    }
+    AssertByteBuffer(ByteBuffer actual, AbstractAssert parent, Object step) {
+      super(actual, parent, step);
+    }
+    
+    @Override
+    Object boxedActual() {
+      return (actual == null)? null: bufferText(actual);
+    }
+    
+    private void check(boolean result, Supplier<String> textSupplier){
+      if (!result) {
+        fail(boxedActual(), textSupplier);
+      }
+    }
+    
+    public AssertInt remaining() {
+      requireNonNullActual("remaining of ", "buffer");
+      return new AssertInt(actual.remaining(), this, "remaining of ");
+    }
+    public AssertInt get(int index) {
+      requireNonNullActual("get element at ", "buffer");
+      return new AssertInt(actual.get(actual.position() + index), this, "get element at ");
+    }
+    @Override
+    public void isEqualTo(Object element) {
+      if (element instanceof byte[]) {
+        isEqualTo((byte[])element);
+        return;
+      }
+      if (element instanceof ByteBuffer) {
+        isEqualTo((ByteBuffer)element);
+        return;
+      }
+      if (element != null) {  // by example an element boxed by isEqualTo(3)
+        check(false, () -> notAnArrayText(element));
+        return;
+      }
+      super.isEqualTo(element);
+    }
+    @Override
+    public void isNotEqualTo(Object element) {
+      if (element instanceof byte[]) {
+        isNotEqualTo(ByteBuffer.wrap((byte[])element));
+        return;
+      }
+      if (element instanceof ByteBuffer) {
+        isNotEqualTo((ByteBuffer)element);
+        return;
+      }
+      super.isNotEqualTo(element);
+    }
+    public void isEqualTo(ByteBuffer buffer) {
+      if (actual == null || buffer == null) {
+        check(actual == buffer, () -> "%s equals " + ((buffer == null)? null: bufferText(buffer)));
+        return;
+      }
+      int index = ArrayMismatch.mismatch(actual, buffer, 0);
+      check(index == -1, () -> "%s equals " + bufferText(buffer) + mismatchText(index, actual.remaining(), buffer.remaining(),
+          (from, to) -> Arrays.toString(bufferBytes(actual, from, to)),
+          (from, to) -> Arrays.toString(bufferBytes(buffer, from, to))));
+    }
+    public void isEqualTo(byte... elements) {
+      isEqualTo((elements == null)? null: ByteBuffer.wrap(elements));
+    }
+    public void isNotEqualTo(ByteBuffer buffer) {
+      if (actual == null || buffer == null) {
+        check(actual != buffer, () -> "%s not equals " + ((buffer == null)? null: bufferText(buffer)));
+        return;
+      }
+      check(ArrayMismatch.mismatch(actual, buffer, 0) != -1, () -> "%s not equals " + bufferText(buffer));
+    }
+    public AssertInt mismatchCount(ByteBuffer buffer) {
+      requireNonNullActual("mismatch count of ", "buffer");
+      requireNonNullArgument(buffer, "mismatch count of ", "buffer");
+      int count = JayAssertion.mismatchCount(actual.remaining(), buffer.remaining(), from -> ArrayMismatch.mismatch(actual, buffer, from));
+      return new AssertInt(count, this, "mismatch count of ");
+    }
+  }
+  
+  public static class AssertIntArray extends Assert<int[]> {
+    private static final int[] EMPTY = new int[0];
+    
+    AssertIntArray(int[] actual, Checker checker) {
+      super(actual, checker);
+    }
+    AssertIntArray(int[] actual, AbstractAssert parent, Object step) {
+      super(actual, parent, step);
+    }
+    
+    @Override
+    Object boxedActual() {
+      return (actual == null)? null: arrayText(actual);
+    }
+    
+    private void check(boolean result, Supplier<String> textSupplier){
+      if (!result) {
+        fail(boxedActual(), textSupplier);
+      }
+    }
+    
+    public void isEmpty() {
+      check(actual != null && actual.length == 0, () -> "%s is empty");
+    }
+    public AssertInt length() {
+      requireNonNullActual("length of ", "array");
+      return new AssertInt(actual.length, this, "length of ");
+    }
+    public AssertInt get(int index) {
+      requireNonNullActual("get element at ", "array");
+      return new AssertInt(actual[index], this, "get element at ");
+    }
+    public void contains(int element) {
+      boolean result = false;
+      for(int value: (actual == null)? EMPTY: actual) {
+        if (value == element) {
+          result = true;
+          break;
+        }
+      }
+      check(result, () -> "%s contains " + element);
+    }
+    public void isSorted() {
+      boolean result = actual != null;
+      for(int i = 1; result && i < actual.length; i++) {
+        result = actual[i - 1] <= actual[i];
+      }
+      check(result, () -> "%s is sorted");
+    }
+    @Override
+    public void isEqualTo(Object element) {
+      if (element instanceof int[]) {
+        isEqualTo((int[])element);
+        return;
+      }
+      if (element != null) {  // by example an element boxed by isEqualTo(3)
+        check(false, () -> notAnArrayText(element));
+        return;
+      }
+      super.isEqualTo(element);
+    }
+    @Override
+    public void isNotEqualTo(Object element) {
+      if (element instanceof int[]) {
+        isNotEqualTo((int[])element);
+        return;
+      }
+      super.isNotEqualTo(element);
+    }
+    public void isEqualTo(int... elements) {
+      if (actual == null || elements == null) {
+        check(actual == elements, () -> "%s equals " + ((elements == null)? null: arrayText(elements)));
+        return;
+      }
+      int index = ArrayMismatch.mismatch(actual, elements, 0);
+      check(index == -1, () -> "%s equals " + arrayText(elements) + mismatchText(index, actual.length, elements.length,
+          (from, to) -> Arrays.toString(Arrays.copyOfRange(actual, from, to)),
+          (from, to) -> Arrays.toString(Arrays.copyOfRange(elements, from, to))));
+    }
+    public void isNotEqualTo(int... elements) {
+      if (actual == null || elements == null) {
+        check(actual != elements, () -> "%s not equals " + ((elements == null)? null: arrayText(elements)));
+        return;
+      }
+      check(ArrayMismatch.mismatch(actual, elements, 0) != -1, () -> "%s not equals " + arrayText(elements));
+    }
+    public AssertInt mismatchCount(int... elements) {
+      requireNonNullActual("mismatch count of ", "array");
+      requireNonNullArgument(elements, "mismatch count of ", "array");
+      int count = JayAssertion.mismatchCount(actual.length, elements.length, from -> ArrayMismatch.mismatch(actual, elements, from));
+      return new AssertInt(count, this, "mismatch count of ");
+    }
+    public AssertLong sum() {
+      requireNonNullActual("sum of ", "array");
+      long sum = 0;
+      for(int value: actual) {
+        sum += value;
+      }
+      return new AssertLong(sum, this, "sum of ");
+    }
+    public AssertInt min() {
+      requireNonNullActual("min of ", "array");
+      if (actual.length == 0) {
+        throw new NoSuchElementException("min of an empty array");
+      }
+      int min = actual[0];
+      for(int value: actual) {
+        min = Math.min(min, value);
+      }
+      return new AssertInt(min, this, "min of ");
+    }
+    public AssertInt max() {
+      requireNonNullActual("max of ", "array");
+      if (actual.length == 0) {
+        throw new NoSuchElementException("max of an empty array");
+      }
+      int max = actual[0];
+      for(int value: actual) {
+        max = Math.max(max, value);
+      }
+      return new AssertInt(max, this, "max of ");
+    }
+  }
+  
+  public static class AssertLongArray extends Assert<long[]> {
+    private static final long[] EMPTY = new long[0];
+    
+    AssertLongArray(long[] actual, Checker checker) {
+      super(actual, checker);
+    }
+    AssertLongArray(long[] actual, AbstractAssert parent, Object step) {
+      super(actual, parent, step);
+    }
+    
+    @Override
+    Object boxedActual() {
+      return (actual == null)? null: arrayText(actual);
+    }
+    
+    private void check(boolean result, Supplier<String> textSupplier){
+      if (!result) {
+        fail(boxedActual(), textSupplier);
+      }
+    }
+    
+    public void isEmpty() {
+      check(actual != null && actual.length == 0, () -> "%s is empty");
+    }
+    public AssertInt length() {
+      requireNonNullActual("length of ", "array");
+      return new AssertInt(actual.length, this, "length of ");
+    }
+    public AssertLong get(int index) {
+      requireNonNullActual("get element at ", "array");
+      return new AssertLong(actual[index], this, "get element at ");
+    }
+    public void contains(long element) {
+      boolean result = false;
+      for(long value: (actual == null)? EMPTY: actual) {
+        if (value == element) {
+          result = true;
+          break;
+        }
+      }
+      check(result, () -> "%s contains " + element);
+    }
+    public void isSorted() {
+      boolean result = actual != null;
+      for(int i = 1; result && i < actual.length; i++) {
+        result = actual[i - 1] <= actual[i];
+      }
+      check(result, () -> "%s is sorted");
+    }
+    @Override
+    public void isEqualTo(Object element) {
+      if (element instanceof long[]) {
+        isEqualTo((long[])element);
+        return;
+      }
+      if (element != null) {  // by example an element boxed by isEqualTo(3)
+        check(false, () -> notAnArrayText(element));
+        return;
+      }
+      super.isEqualTo(element);
+    }
+    @Override
+    public void isNotEqualTo(Object element) {
+      if (element instanceof long[]) {
+        isNotEqualTo((long[])element);
+        return;
+      }
+      super.isNotEqualTo(element);
+    }
+    public void isEqualTo(long... elements) {
+      if (actual == null || elements == null) {
+        check(actual == elements, () -> "%s equals " + ((elements == null)? null: arrayText(elements)));
+        return;
+      }
+      int index = ArrayMismatch.mismatch(actual, elements, 0);
+      check(index == -1, () -> "%s equals " + arrayText(elements) + mismatchText(index, actual.length, elements.length,
+          (from, to) -> Arrays.toString(Arrays.copyOfRange(actual, from, to)),
+          (from, to) -> Arrays.toString(Arrays.copyOfRange(elements, from, to))));
+    }
+    public void isNotEqualTo(long... elements) {
+      if (actual == null || elements == null) {
+        check(actual != elements, () -> "%s not equals " + ((elements == null)? null: arrayText(elements)));
+        return;
+      }
+      check(ArrayMismatch.mismatch(actual, elements, 0) != -1, () -> "%s not equals " + arrayText(elements));
+    }
+    public AssertInt mismatchCount(long... elements) {
+      requireNonNullActual("mismatch count of ", "array");
+      requireNonNullArgument(elements, "mismatch count of ", "array");
+      int count = JayAssertion.mismatchCount(actual.length, elements.length, from -> ArrayMismatch.mismatch(actual, elements, from));
+      return new AssertInt(count, this, "mismatch count of ");
+    }
+    public AssertLong sum() {
+      requireNonNullActual("sum of ", "array");
+      long sum = 0;
+      for(long value: actual) {
+        sum += value;
+      }
+      return new AssertLong(sum, this, "sum of ");
+    }
+    public AssertLong min() {
+      requireNonNullActual("min of ", "array");
+      if (actual.length == 0) {
+        throw new NoSuchElementException("min of an empty array");
+      }
+      long min = actual[0];
+      for(long value: actual) {
+        min = Math.min(min, value);
+      }
+      return new AssertLong(min, this, "min of ");
+    }
+    public AssertLong max() {
+      requireNonNullActual("max of ", "array");
+      if (actual.length == 0) {
+        throw new NoSuchElementException("max of an empty array");
+      }
+      long max = actual[0];
+      for(long value: actual) {
+        max = Math.max(max, value);
+      }
+      return new AssertLong(max, this, "max of ");
+    }
+  }
+  
+  // like Arrays.equals(double[], double[]), NaN is equal to NaN and 0.0 is not equal to -0.0
+  public static class AssertDoubleArray extends Assert<double[]> {
+    private static final double[] EMPTY = new double[0];
+    
+    AssertDoubleArray(double[] actual, Checker checker) {
+      super(actual, checker);
+    }
+    AssertDoubleArray(double[] actual, AbstractAssert parent, Object step) {
+      super(actual, parent, step);
+    }
+    
+    @Override
+    Object boxedActual() {
+      return (actual == null)? null: arrayText(actual);
+    }
+    
+    private void check(boolean result, Supplier<String> textSupplier){
+      if (!result) {
+        fail(boxedActual(), textSupplier);
+      }
+    }
+    
+    public void isEmpty() {
+      check(actual != null && actual.length == 0, () -> "%s is empty");
+    }
+    public AssertInt length() {
+      requireNonNullActual("length of ", "array");
+      return new AssertInt(actual.length, this, "length of ");
+    }
+    public AssertDouble get(int index) {
+      requireNonNullActual("get element at ", "array");
+      return new AssertDouble(actual[index], this, "get element at ");
+    }
+    public void contains(double element) {
+      boolean result = false;
+      for(double value: (actual == null)? EMPTY: actual) {
+        if (Double.compare(value, element) == 0) {
+          result = true;
+          break;
+        }
+      }
+      check(result, () -> "%s contains " + element);
+    }
+    public void isSorted() {
+      boolean result = actual != null;
+      for(int i = 1; result && i < actual.length; i++) {
+        result = Double.compare(actual[i - 1], actual[i]) <= 0;
+      }
+      check(result, () -> "%s is sorted");
+    }
+    @Override
+    public void isEqualTo(Object element) {
+      if (element instanceof double[]) {
+        isEqualTo((double[])element);
+        return;
+      }
+      if (element != null) {  // by example an element boxed by isEqualTo(3)
+        check(false, () -> notAnArrayText(element));
+        return;
+      }
+      super.isEqualTo(element);
+    }
+    @Override
+    public void isNotEqualTo(Object element) {
+      if (element instanceof double[]) {
+        isNotEqualTo((double[])element);
+        return;
+      }
+      super.isNotEqualTo(element);
+    }
+    public void isEqualTo(double... elements) {
+      if (actual == null || elements == null) {
+        check(actual == elements, () -> "%s equals " + ((elements == null)? null: arrayText(elements)));
+        return;
+      }
+      int index = ArrayMismatch.mismatch(actual, elements, 0);
+      check(index == -1, () -> "%s equals " + arrayText(elements) + mismatchText(index, actual.length, elements.length,
+          (from, to) -> Arrays.toString(Arrays.copyOfRange(actual, from, to)),
+          (from, to) -> Arrays.toString(Arrays.copyOfRange(elements, from, to))));
+    }
+    public void isNotEqualTo(double... elements) {
+      if (actual == null || elements == null) {
+        check(actual != elements, () -> "%s not equals " + ((elements == null)? null: arrayText(elements)));
+        return;
+      }
+      check(ArrayMismatch.mismatch(actual, elements, 0) != -1, () -> "%s not equals " + arrayText(elements));
+    }
+    public AssertInt mismatchCount(double... elements) {
+      requireNonNullActual("mismatch count of ", "array");
+      requireNonNullArgument(elements, "mismatch count of ", "array");
+      int count = JayAssertion.mismatchCount(actual.length, elements.length, from -> ArrayMismatch.mismatch(actual, elements, from));
+      return new AssertInt(count, this, "mismatch count of ");
+    }
+    public AssertDouble sum() {
+      requireNonNullActual("sum of ", "array");
+      double sum = 0;
+      for(double value: actual) {
+        sum += value;
+      }
+      return new AssertDouble(sum, this, "sum of ");
+    }
+    public AssertDouble min() {
+      requireNonNullActual("min of ", "array");
+      if (actual.length == 0) {
+        throw new NoSuchElementException("min of an empty array");
+      }
+      double min = actual[0];
+      for(double value: actual) {
+        min = Math.min(min, value);
+      }
+      return new AssertDouble(min, this, "min of ");
+    }
+    public AssertDouble max() {
+      requireNonNullActual("max of ", "array");
+      if (actual.length == 0) {
+        throw new NoSuchElementException("max of an empty array");
+      }
+      double max = actual[0];
+      for(double value: actual) {
+        max = Math.max(max, value);
+      }
+      return new AssertDouble(max, this, "max of ");
+    }
+  }
+  
+  /**
+   * Decides what to do with an assertion that doesn't hold, by example throw an AssertionError
+   * ({@link JayAssertion#JayAssertion()}) or record it ({@link SoftChecker}).
+   *
+   * The assertions evaluate their condition themselves and only call the checker when
+   * the condition doesn't hold, so a passing assertion never calls the checker
+   * and the predicate is always {@code __ -> false}. A checker can still test the predicate,
+   * like the former checkers did, but can not use it to observe the passing assertions.
+   * The text is a format with one {@code %s} that stands for the actual value.
+   */
   @FunctionalInterface
   public interface Checker {
     <E> void check(E actual, Predicate<? super E> predicate, Supplier<String> textSupplier);
   }
   
+  /**
+   * A checker that records the failed assertions instead of throwing an AssertionError
+   * on the first one, so a test can report all its failures at once.
+   * Only the first failures capture a stack trace, the others only record their message.
+   */
+  public static class SoftChecker implements Checker {
+    private final int maxStackTraces;
+    private final int maxStackFrames;
+    private final ArrayList<String> messages = new ArrayList<>();
+    private final ArrayList<AssertionError> errors = new ArrayList<>();
+    
+    /**
+     * Creates a checker that captures the stack trace of the first {@code maxStackTraces} failures,
+     * each stack trace having at most {@code maxStackFrames} frames (0 means no limit).
+     */
+    public SoftChecker(int maxStackTraces, int maxStackFrames) {
+      if (maxStackTraces < 0) {
+        throw new IllegalArgumentException("maxStackTraces should be positive or zero " + maxStackTraces);
+      }
+      if (maxStackFrames < 0) {
+        throw new IllegalArgumentException("maxStackFrames should be positive or zero " + maxStackFrames);
+      }
+      this.maxStackTraces = maxStackTraces;
+      this.maxStackFrames = maxStackFrames;
+    }
+    public SoftChecker(int maxStackTraces) {
+      this(maxStackTraces, 0);
+    }
+    
+    @Override
+    public <E> void check(E actual, Predicate<? super E> predicate, Supplier<String> textSupplier) {
+      if (predicate.test(actual)) {
+        return;
+      }
+      String message = "Invalid assertion, " + String.format(textSupplier.get(), actual);
+      synchronized(this) {
+        messages.add(message);
+        if (errors.size() < maxStackTraces) {
+          errors.add(new InvalidAssertionError(message, StackCapture.userFrames(maxStackFrames)));
+        }
+      }
+    }
+    
+    public synchronized int failureCount() {
+      return messages.size();
+    }
+    
+    /**
+     * Returns an error listing all the recorded failures or null if there is no failure.
+     * The error has the stack trace of the first failure and the failures
+     * with a stack trace as suppressed exceptions.
+     */
+    public synchronized AssertionError failure() {
+      if (messages.isEmpty()) {
+        return null;
+      }
+      StringBuilder builder = new StringBuilder();
+      builder.append(messages.size()).append(" failed assertion(s)");
+      for(String message: messages) {
+        builder.append("\n  ").append(message);
+      }
+      SoftAssertionError failure = new SoftAssertionError(builder.toString());
+      failure.setStackTrace(errors.isEmpty()? new StackTraceElement[0]: errors.get(0).getStackTrace());
+      errors.forEach(failure::addSuppressed);
+      return failure;
+    }
+  }
+  
+  /**
+   * An error which stack trace only contains the frames of the code calling the assertion,
+   * capturing only those frames is cheaper than filling a whole stack trace.
+   */
+  public static class InvalidAssertionError extends AssertionError {
+    private static final long serialVersionUID = 1;
+    
+    InvalidAssertionError(String message, StackTraceElement[] stackTrace) {
+      super(message);
+      setStackTrace(stackTrace);
+    }
+    
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;  // the stack trace is provided by the constructor
+    }
+  }
+  
+  /**
+   * The error of a test with several failed assertions, see {@link SoftChecker}.
+   */
+  public static class SoftAssertionError extends AssertionError {
+    private static final long serialVersionUID = 1;
+    
+    SoftAssertionError(String message) {
+      super(message);
+    }
+    
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;  // the stack trace is the one of the first failure
+    }
+  }
+  
+  /**
+   * A property checked on generated values, see {@link JayAssertion#forAll(Generator, Property)}.
+   * The property uses the assertion taken as argument to check the value.
+   */
+  @FunctionalInterface
+  public interface Property<T> {
+    public void check(T value, JayAssertion assertion) throws Exception;
+  }
+  
   private final Checker checker;
   
   public JayAssertion(Checker checker) {
@@ -433,7 +1302,37 @@ public class JayAssertion {
     this(JayAssertion::checkAssertion);
   }
   
+  // fails without an assert, by example when a measure is not available
+  void fail(String text) {
+    checker.check(null, __ -> false, () -> text);
+  }
+  
+  // the implementation method of a lambda only depends on the lambda class,
+  // so the method name is decoded once by lambda class and shared by all threads
+  private static final ClassValue<AtomicReference<String>> METHOD_NAME_CACHE =
+      new ClassValue<AtomicReference<String>>() {
+        @Override
+        protected AtomicReference<String> computeValue(Class<?> type) {
+          return new AtomicReference<>();
+        }
+      };
+  
   static String asMethodName(String text, Serializable lambda) {
+    AtomicReference<String> reference = METHOD_NAME_CACHE.get(lambda.getClass());
+    String methodName = reference.get();
+    if (methodName == null) {
+      methodName = decodeMethodName(lambda);
+      reference.set(methodName);  // racy but all threads compute the same name
+    }
+    return text.replace("%s", "%s." + methodName);
+  }
+  
+  private static String decodeMethodName(Serializable lambda) {
+    SerializedLambda serializedLambda = asSerializedLambda(lambda);
+    if (serializedLambda != null) {
+      return serializedLambda.getImplMethodName() + serializedLambda.getImplMethodSignature();
+    }
+    
     ByteArrayOutputStream stream = new ByteArrayOutputStream();
     ObjectOutputStream output;
     try {
@@ -446,8 +1345,20 @@ public class JayAssertion {
     ByteBuffer buffer = ByteBuffer.wrap(stream.toByteArray());
     @SuppressWarnings("unchecked")
     HashMap<String, Object> map = (HashMap<String, Object>)new SerializationDecoder().decode(buffer);
-    String format = "%s" + '.' + (String)map.get("implMethodName") + (String)map.get("implMethodSignature");
-    return text.replace("%s", format);
+    return (String)map.get("implMethodName") + (String)map.get("implMethodSignature");
+  }
+  
+  // ask the lambda for its serialized form directly instead of round-tripping through bytes,
+  // returns null if the lambda class doesn't let us call writeReplace
+  private static SerializedLambda asSerializedLambda(Serializable lambda) {
+    try {
+      Method writeReplace = lambda.getClass().getDeclaredMethod("writeReplace");
+      writeReplace.setAccessible(true);
+      Object replacement = writeReplace.invoke(lambda);
+      return (replacement instanceof SerializedLambda)? (SerializedLambda)replacement: null;
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException | RuntimeException e) {
+      return null;
+    }
   }
   
   private static <E> void checkAssertion(E actual, Predicate<? super E> predicate, Supplier<String> textSupplier) {
@@ -456,6 +1367,31 @@ public class JayAssertion {
     }
   }
   
+  /**
+   * Checks the property on 1000 values of the generator, the seed is the value
+   * of the system property "jayspec.seed" or a constant, so the same values are generated each run.
+   * 
+   * @see #forAll(Generator, int, long, Property)
+   */
+  public <T> void forAll(Generator<T> generator, Property<? super T> property) {
+    forAll(generator, PropertyRunner.DEFAULT_TRIES, PropertyRunner.DEFAULT_SEED, property);
+  }
+  
+  /**
+   * Checks the property on values of the generator, the values are generated and checked
+   * in parallel. If the property doesn't hold, the counterexample is shrunk using
+   * {@link Generator#shrink(Object)} and the smallest counterexample found is reported
+   * as a failed assertion.
+   * 
+   * @param generator the generator of values.
+   * @param tries the number of values to check.
+   * @param seed the seed of the values, the same seed generates the same values.
+   * @param property the property to check.
+   */
+  public <T> void forAll(Generator<T> generator, int tries, long seed, Property<? super T> property) {
+    PropertyRunner.forAll(checker, generator, tries, seed, property);
+  }
+  
   public AssertBoolean that(boolean actual) {
     return new AssertBoolean(actual, checker);
   }
@@ -475,6 +1411,26 @@ public class JayAssertion {
   public AssertDouble that(double actual) {
     return new AssertDouble(actual, checker);
   }
+  
+  public AssertByteArray that(byte[] actual) {
+    return new AssertByteArray(actual, checker);
+  }
+  
+  public AssertByteBuffer that(ByteBuffer actual) {
+    return new AssertByteBuffer(actual, checker);
+  }
+  
+  public AssertIntArray that(int[] actual) {
+    return new AssertIntArray(actual, checker);
+  }
+  
+  public AssertLongArray that(long[] actual) {
+    return new AssertLongArray(actual, checker);
+  }
+  
+  public AssertDoubleArray that(double[] actual) {
+    return new AssertDoubleArray(actual, checker);
+  }
 
   public <E> Assert<E> that(E actual) {
     return new Assert<>(actual, checker);
@@ -507,12 +1463,12 @@ public class JayAssertion {
   }
   
   public <K, V, E extends Map<K,V>> AssertMap<K,V,E,Assert<K>,AssertCollection<K,Set<K>,Assert<K>>> that(E actual) {
-    return new AssertMap<>(actual, checker, (map, __) -> new AssertCollection<>(map.keySet(), __, Assert<K>::new));
+    return new AssertMap<>(actual, checker, (map, parent, step) -> new AssertCollection<>(map.keySet(), parent, step, Assert<K>::new));
   }
   
   //FIXME, we only support navigable map with keys that are comparable due to erasure
   // otherwise, it will be typed as a map
   public <K extends Comparable<? super K>, V, E extends NavigableMap<K,V>> AssertMap<K,V,E,AssertComparable<K>, AssertNavigableSet<K,NavigableSet<K>,AssertComparable<K>>> that(E actual) {
-    return new AssertMap<>(actual, checker, (map, __) -> new AssertNavigableSet<>(map.navigableKeySet(), __, AssertComparable<K>::new));
+    return new AssertMap<>(actual, checker, (map, parent, step) -> new AssertNavigableSet<>(map.navigableKeySet(), parent, step, AssertComparable<K>::new));
   }
 }
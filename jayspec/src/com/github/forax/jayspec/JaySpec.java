@@ -1,18 +1,50 @@
 package com.github.forax.jayspec;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.function.BiConsumer;
-import java.util.function.BiFunction;
-import java.util.function.BinaryOperator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.github.forax.jayspec.JayAssertion.Checker;
+import com.github.forax.jayspec.JayAssertion.InvalidAssertionError;
+import com.github.forax.jayspec.JayAssertion.SoftChecker;
 
 public class JaySpec {
   @FunctionalInterface
@@ -20,9 +52,56 @@ public class JaySpec {
     public void accept(JayAssertion assertion) throws Exception;
   }
   
+  @FunctionalInterface
+  public interface MeasureConsumer {
+    public void accept(Measure measure, JayAssertion assertion) throws Exception;
+  }
+  
   @FunctionalInterface
   public interface Behavior {
     public void should(String description, AssertionConsumer assertionConsumer);
+    
+    /**
+     * Defines a test that runs the operation {@code warmupIterations} times, then measures
+     * {@code iterations} runs of the operation and checks the measure.
+     * The operation runs in its own thread and only one measure is done at a time,
+     * but the other examples may still run in parallel, see {@link ExecutionStrategy#sequential()}.
+     */
+    public default void shouldMeasure(String description, int warmupIterations, int iterations,
+                                      Runnable operation, MeasureConsumer measureConsumer) {
+      should(description, assertion -> measureConsumer.accept(Measure.measure(warmupIterations, iterations, operation), assertion));
+    }
+    
+    /**
+     * Checks that {@code iterations} runs of the operation take at most the duration,
+     * the operation is first run {@code iterations} times to warm up.
+     */
+    public default void shouldRunWithin(String description, int iterations, Duration duration, Runnable operation) {
+      shouldMeasure(description, iterations, iterations, operation,
+          (measure, assertion) -> assertion.that(measure.getDuration()).isLessOrEqualThan(duration));
+    }
+    
+    /**
+     * Checks that a run of the operation allocates at most {@code bytesPerOperation} bytes in average,
+     * the test fails if the VM doesn't count the allocated bytes.
+     */
+    public default void shouldAllocateAtMost(String description, int iterations, long bytesPerOperation, Runnable operation) {
+      shouldMeasure(description, iterations, iterations, operation, (measure, assertion) -> {
+        if (measure.getAllocatedBytes() == -1) {
+          assertion.fail("allocation measurement unavailable, this VM doesn't count the allocated bytes");
+          return;
+        }
+        assertion.that(measure.getAllocatedBytesPerOperation()).isLessOrEqualThan(bytesPerOperation);
+      });
+    }
+    
+    /**
+     * Checks that the operation runs at least {@code operationsPerSecond} times per second.
+     */
+    public default void shouldHaveThroughput(String description, int iterations, double operationsPerSecond, Runnable operation) {
+      shouldMeasure(description, iterations, iterations, operation,
+          (measure, assertion) -> assertion.that(measure.getThroughput()).isGreaterOrEqualThan(operationsPerSecond));
+    }
   }
   
   @FunctionalInterface
@@ -33,15 +112,325 @@ public class JaySpec {
   @FunctionalInterface
   public interface Reporter<R> {
     R createReport(Example example, String description, Throwable error);
+    
+    /**
+     * Creates a report for a test that has run in {@code duration} nanoseconds,
+     * by default the duration is ignored, see {@link TimedReporter}.
+     */
+    public default R createReport(Example example, String description, Throwable error, long duration) {
+      return createReport(example, description, error);
+    }
+    
+    public default Listener asListener(Consumer<? super R> consumer) {
+      return (example, description, error, duration) -> consumer.accept(createReport(example, description, error, duration));
+    }
+    
+    /**
+     * Returns the reporter as a {@link TimedReporter}, so a constructor or a lambda taking
+     * the duration can be used as a reporter, by example {@code runTest(Reporter.timed(Report::new))}.
+     */
+    public static <R> Reporter<R> timed(TimedReporter<R> reporter) {
+      return reporter;
+    }
+  }
+  
+  /**
+   * A {@link Reporter} that also receives the duration of the tests.
+   */
+  @FunctionalInterface
+  public interface TimedReporter<R> extends Reporter<R> {
+    /**
+     * Creates a report for a test, the duration is in nanoseconds or -1 if unknown.
+     */
+    @Override
+    R createReport(Example example, String description, Throwable error, long duration);
+    
+    @Override
+    public default R createReport(Example example, String description, Throwable error) {
+      return createReport(example, description, error, -1);
+    }
+  }
+  
+  /**
+   * Receives the events of a run as they happen,
+   * the methods of a listener are called concurrently by the worker threads.
+   */
+  @FunctionalInterface
+  public interface Listener {
+    public default void specStarted(Spec spec) {
+      // empty
+    }
+    public default void exampleStarted(Example example) {
+      // empty
+    }
+    /**
+     * Called when a test is finished, the duration is in nanoseconds.
+     */
+    public void testFinished(Example example, String description, Throwable error, long duration);
+    /**
+     * Called when all the tests of an example are finished, the duration is in nanoseconds
+     * and includes the time to create the fixture.
+     */
+    public default void exampleFinished(Example example, long duration) {
+      // empty
+    }
+    /**
+     * Called instead of {@link #exampleStarted(Example)} when an example is not run
+     * because the maximum number of failures has been reached.
+     */
+    public default void exampleSkipped(Example example) {
+      // empty
+    }
+    /**
+     * Called instead of {@link #exampleStarted(Example)} when an example is not run
+     * because all its tests have passed during the previous incremental run
+     * and its spec has not changed since.
+     */
+    public default void exampleCached(Example example, int testCount) {
+      // empty
+    }
+    
+    /**
+     * Returns a listener that sends each event to this listener and then to the other listener.
+     */
+    public default Listener and(Listener listener) {
+      Listener self = this;
+      return new Listener() {
+        @Override
+        public void specStarted(Spec spec) {
+          self.specStarted(spec);
+          listener.specStarted(spec);
+        }
+        @Override
+        public void exampleStarted(Example example) {
+          self.exampleStarted(example);
+          listener.exampleStarted(example);
+        }
+        @Override
+        public void testFinished(Example example, String description, Throwable error, long duration) {
+          self.testFinished(example, description, error, duration);
+          listener.testFinished(example, description, error, duration);
+        }
+        @Override
+        public void exampleFinished(Example example, long duration) {
+          self.exampleFinished(example, duration);
+          listener.exampleFinished(example, duration);
+        }
+        @Override
+        public void exampleSkipped(Example example) {
+          self.exampleSkipped(example);
+          listener.exampleSkipped(example);
+        }
+        @Override
+        public void exampleCached(Example example, int testCount) {
+          self.exampleCached(example, testCount);
+          listener.exampleCached(example, testCount);
+        }
+      };
+    }
+  }
+  
+  /**
+   * The examples to run shared by all the threads of an execution strategy,
+   * the rows of the parameterized examples are only pulled when requested.
+   */
+  @FunctionalInterface
+  public interface ExampleCursor {
+    /**
+     * Returns the next example to run or null if there is no more example,
+     * this method can be called by several threads, each example is returned once.
+     */
+    public Example next();
+  }
+  
+  /**
+   * Decides how the examples are run, all the strategies wait until
+   * all examples have been executed.
+   */
+  @FunctionalInterface
+  public interface ExecutionStrategy {
+    public void execute(ExampleCursor examples, Consumer<? super Example> runner);
+    
+    /**
+     * Runs all examples one after the other in the current thread.
+     */
+    public static ExecutionStrategy sequential() {
+      return (examples, runner) -> {
+        Example example;
+        while((example = examples.next()) != null) {
+          runner.accept(example);
+        }
+      };
+    }
+    
+    /**
+     * Runs the examples in the common fork-join pool, this is the default strategy.
+     */
+    public static ExecutionStrategy forkJoin() {
+      return (examples, runner) -> {
+        // each worker takes the next example of the cursor, so the examples
+        // are started in order (a parallel stream would split them in chunks)
+        int parallelism = ForkJoinPool.getCommonPoolParallelism() + 1;
+        IntStream.range(0, parallelism).parallel().forEach(__ -> {
+          Example example;
+          while((example = examples.next()) != null) {
+            runner.accept(example);
+          }
+        });
+      };
+    }
+    
+    /**
+     * Runs each example in its own virtual thread with at most maxConcurrency examples
+     * running at the same time, this strategy is well suited for examples doing blocking I/Os.
+     * If the running VM has no virtual thread, platform threads are used instead.
+     */
+    public static ExecutionStrategy virtualThreads(int maxConcurrency) {
+      if (maxConcurrency <= 0) {
+        throw new IllegalArgumentException("maxConcurrency should be positive " + maxConcurrency);
+      }
+      ThreadFactory factory = virtualThreadFactory();
+      return (examples, runner) -> runInThreads(examples, runner, factory, maxConcurrency);
+    }
+  }
+  
+  /**
+   * Selects the specs and the examples to run, the filter is applied
+   * before the examples are executed.
+   */
+  public interface Filter {
+    /**
+     * Returns true if the examples of the spec should be defined,
+     * a spec rejected by this method is never defined.
+     */
+    public default boolean acceptSpec(Spec spec) {
+      return true;
+    }
+    public default boolean acceptExample(Example example) {
+      return true;
+    }
+    /**
+     * Returns false if none of the examples of a parameterized given() can be accepted,
+     * so the parameters are not even generated. The example has the description
+     * with its format specifiers, so by default this method returns true
+     * and the examples are filtered one by one by {@link #acceptExample(Example)}.
+     */
+    public default boolean acceptParameterizedExample(Example example) {
+      return true;
+    }
+    
+    public default Filter and(Filter filter) {
+      Filter self = this;
+      return new Filter() {
+        @Override
+        public boolean acceptSpec(Spec spec) {
+          return self.acceptSpec(spec) && filter.acceptSpec(spec);
+        }
+        @Override
+        public boolean acceptExample(Example example) {
+          return self.acceptExample(example) && filter.acceptExample(example);
+        }
+        @Override
+        public boolean acceptParameterizedExample(Example example) {
+          return self.acceptParameterizedExample(example) && filter.acceptParameterizedExample(example);
+        }
+      };
+    }
+    
+    public static Filter all() {
+      return new Filter() { /* empty */ };
+    }
+    
+    /**
+     * Only run the specs whose declared class is one of the classes.
+     */
+    public static Filter declaredClass(Class<?>... classes) {
+      Set<Class<?>> classSet = new HashSet<>(Arrays.asList(classes));
+      return new Filter() {
+        @Override
+        public boolean acceptSpec(Spec spec) {
+          return classSet.contains(spec.getDeclaredClass());
+        }
+      };
+    }
+    
+    /**
+     * Only run the examples whose description contains a match of the regex.
+     */
+    public static Filter description(String regex) {
+      Pattern pattern = Pattern.compile(regex);
+      return new Filter() {
+        @Override
+        public boolean acceptExample(Example example) {
+          return pattern.matcher(example.getDescription()).find();
+        }
+      };
+    }
+    
+    /**
+     * Only run the examples that have at least one of the tags,
+     * the tags of a spec are inherited by its examples.
+     */
+    public static Filter tags(String... tags) {
+      Set<String> tagSet = new HashSet<>(Arrays.asList(tags));
+      return new Filter() {
+        @Override
+        public boolean acceptExample(Example example) {
+          return !Collections.disjoint(tagSet, example.getTags()) ||
+                 !Collections.disjoint(tagSet, example.getSpec().getTags());
+        }
+        @Override
+        public boolean acceptParameterizedExample(Example example) {
+          return acceptExample(example);  // the examples have the tags of the parameterized example
+        }
+      };
+    }
+    
+    /**
+     * Only run the examples of the shard shardIndex among shardCount shards.
+     * The shard of an example only depends on the name of the declared class of its spec
+     * and on its description, so several VMs using the same shardCount and
+     * different shard indexes run each example exactly once.
+     */
+    public static Filter shard(int shardIndex, int shardCount) {
+      if (shardCount <= 0 || shardIndex < 0 || shardIndex >= shardCount) {
+        throw new IllegalArgumentException("invalid shard " + shardIndex + '/' + shardCount);
+      }
+      return new Filter() {
+        @Override
+        public boolean acceptExample(Example example) {
+          return Math.floorMod(stableHash(example), shardCount) == shardIndex;
+        }
+      };
+    }
+  }
+  
+  // String.hashCode() is specified so the hash is the same in all VMs
+  static int stableHash(Example example) {
+    int hash = example.getSpec().getDeclaredClass().getName().hashCode() * 31 + example.getDescription().hashCode();
+    // mix the bits (murmur3 finalizer) so similar descriptions are spread over the shards
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
   }
   
   public static class Spec {
     private final Class<?> declaredClass;
     private final TestDefinition testDefinition;
+    private final Duration timeout;
+    private final Set<String> tags;
     
-    public Spec(Class<?> declaredClass, TestDefinition testDefinition) {
+    public Spec(Class<?> declaredClass, TestDefinition testDefinition, Duration timeout, Set<String> tags) {
       this.declaredClass = declaredClass;
       this.testDefinition = testDefinition;
+      this.timeout = timeout;
+      this.tags = tags;
+    }
+    public Spec(Class<?> declaredClass, TestDefinition testDefinition) {
+      this(declaredClass, testDefinition, null, Collections.emptySet());
     }
     
     public Class<?> getDeclaredClass() {
@@ -50,6 +439,15 @@ public class JaySpec {
     public TestDefinition getTestDefinition() {
       return testDefinition;
     }
+    /**
+     * Returns the timeout of the examples of the spec or null if not specified.
+     */
+    public Duration getTimeout() {
+      return timeout;
+    }
+    public Set<String> getTags() {
+      return tags;
+    }
     
     @Override
     public String toString() {
@@ -61,11 +459,22 @@ public class JaySpec {
     private final Spec spec;
     private final String description;
     private final Runnable test;
+    private final boolean concurrent;
+    private final Duration timeout;
+    private final Set<String> tags;
+    int declarationIndex;  // set before the examples are run
+    int occurrence;        // number of examples of the same declared class with the same description defined before
     
-    public Example(Spec spec, String description, Runnable test) {
+    public Example(Spec spec, String description, Runnable test, boolean concurrent, Duration timeout, Set<String> tags) {
       this.spec = spec;
       this.description = description;
       this.test = test;
+      this.concurrent = concurrent;
+      this.timeout = timeout;
+      this.tags = tags;
+    }
+    public Example(Spec spec, String description, Runnable test) {
+      this(spec, description, test, false, null, Collections.emptySet());
     }
     
     public Spec getSpec() {
@@ -77,10 +486,205 @@ public class JaySpec {
     public Runnable getTest() {
       return test;
     }
+    /**
+     * Returns true if the fixture of the example is thread safe,
+     * in that case the tests of the example are run in parallel.
+     */
+    public boolean isConcurrent() {
+      return concurrent;
+    }
+    /**
+     * Returns the timeout of the example or null if not specified.
+     */
+    public Duration getTimeout() {
+      return timeout;
+    }
+    /**
+     * Returns the tags of the example, the tags of the spec are not included.
+     */
+    public Set<String> getTags() {
+      return tags;
+    }
+    
+    // the index of the example in declaration order then the index of the row of a parameterized example
+    int declarationIndex() {
+      return declarationIndex;
+    }
+    int rowIndex() {
+      return 0;
+    }
     
     @Override
     public String toString() {
-      return "Example of " + spec.getDeclaredClass()+ ' ' + description;
+      return "Example of " + spec.getDeclaredClass()+ ' ' + getDescription();
+    }
+  }
+  
+  // the example defined by a parameterized given(), it's replaced by one example by parameter when run
+  static class ParameterizedExample<P> extends Example {
+    private final Supplier<? extends Iterator<? extends P>> parameters;
+    private final Consumer<? super P> action;
+    final boolean usesParameter;
+    
+    ParameterizedExample(Spec spec, String description, Supplier<? extends Iterator<? extends P>> parameters,
+                         Consumer<? super P> action, Set<String> tags) {
+      super(spec, description, () -> parameters.get().forEachRemaining(action), false, null, tags);
+      this.parameters = parameters;
+      this.action = action;
+      this.usesParameter = usesParameter(description);
+    }
+    
+    // the examples are created lazily when the iterator is consumed
+    Iterator<Example> examples() {
+      Iterator<? extends P> iterator = parameters.get();
+      return new Iterator<Example>() {
+        private int index;
+        
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+        @Override
+        public Example next() {
+          P parameter = iterator.next();
+          return new ParameterExample<>(ParameterizedExample.this, index++, parameter, () -> action.accept(parameter));
+        }
+      };
+    }
+    
+    // true if the description has a format specifier other than %% and %n
+    private static boolean usesParameter(String description) {
+      for(int i = description.indexOf('%'); i != -1 && i + 1 < description.length(); i = description.indexOf('%', i + 2)) {
+        char next = description.charAt(i + 1);
+        if (next != '%' && next != 'n') {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+  
+  // an example of a parameterized given(), the description is only formatted if requested,
+  // if the template doesn't use the parameter, the index of the row is appended
+  static class ParameterExample<P> extends Example {
+    final ParameterizedExample<P> template;
+    private final int index;
+    private final P parameter;
+    private String description;  // racy but all threads compute the same description
+    
+    ParameterExample(ParameterizedExample<P> template, int index, P parameter, Runnable test) {
+      super(template.getSpec(), template.getDescription(), test, false, null, template.getTags());
+      this.template = template;
+      this.index = index;
+      this.parameter = parameter;
+    }
+    
+    @Override
+    int declarationIndex() {
+      return template.declarationIndex();
+    }
+    @Override
+    int rowIndex() {
+      return index;
+    }
+    
+    @Override
+    public String getDescription() {
+      String description = this.description;
+      if (description == null) {
+        this.description = description = template.usesParameter?
+            String.format(super.getDescription(), parameter):
+            String.format(super.getDescription()) + " #" + index;
+      }
+      return description;
+    }
+  }
+  
+  // an example of given(description, it -> ...), the behavior is passed explicitly when run
+  static class DefinedExample extends Example {
+    final TestDefinition definition;
+    
+    DefinedExample(Spec spec, String description, TestDefinition definition, Set<String> tags) {
+      super(spec, description, () -> {
+        throw new IllegalStateException("the example requires a behavior, it can only be run by JaySpec");
+      }, false, null, tags);
+      this.definition = definition;
+    }
+  }
+  
+  /**
+   * A value lazily created then shared by the examples,
+   * see {@link JaySpec#fixture(String, Supplier)}.
+   */
+  public static final class Fixture<T> implements Supplier<T> {
+    private static final Object UNINITIALIZED = new Object();
+    
+    private final String name;
+    private final Supplier<? extends T> supplier;
+    private volatile Object value = UNINITIALIZED;
+    private boolean closed;  // guarded by this
+    
+    Fixture(String name, Supplier<? extends T> supplier) {
+      this.name = name;
+      this.supplier = supplier;
+    }
+    
+    public String getName() {
+      return name;
+    }
+    
+    /**
+     * Returns the value, the first call creates it, the other threads
+     * calling this method at the same time wait until it's created.
+     * If the supplier fails, the next call will retry.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get() {
+      Object value = this.value;
+      if (value == UNINITIALIZED) {
+        synchronized(this) {
+          value = this.value;
+          if (value == UNINITIALIZED) {
+            if (closed) {
+              throw new IllegalStateException("fixture " + name + " is already closed");
+            }
+            this.value = value = supplier.get();
+          }
+        }
+      }
+      return (T)value;
+    }
+    
+    void close() throws Exception {
+      Object value;
+      synchronized(this) {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        value = this.value;
+      }
+      if (value instanceof AutoCloseable) {
+        ((AutoCloseable)value).close();
+      }
+    }
+    
+    @Override
+    public String toString() {
+      return "Fixture " + name;
+    }
+  }
+  
+  /**
+   * Error reported when an example doesn't finish before its timeout,
+   * the stack trace is the one of the example when the timeout occurred.
+   */
+  public static class TimeoutError extends AssertionError {
+    private static final long serialVersionUID = -3409235812745231592L;
+
+    public TimeoutError(String message) {
+      super(message);
     }
   }
   
@@ -88,11 +692,19 @@ public class JaySpec {
     private final Example example;
     private final String description;
     private final Throwable error;
+    private final long duration;
     
-    public Report(Example example, String description, Throwable error) {
+    public Report(Example example, String description, Throwable error, long duration) {
       this.example = example;
       this.description = description;
       this.error = error;
+      this.duration = duration;
+    }
+    /**
+     * Creates a report with an unknown duration.
+     */
+    public Report(Example example, String description, Throwable error) {
+      this(example, description, error, -1);
     }
     
     public Example getExample() {
@@ -104,6 +716,12 @@ public class JaySpec {
     public Throwable getError() {
       return error;
     }
+    /**
+     * Returns the duration of the test in nanoseconds or -1 if unknown.
+     */
+    public long getDuration() {
+      return duration;
+    }
     
     @Override
     public String toString() {
@@ -113,112 +731,1271 @@ public class JaySpec {
   
   
   private final ArrayList<Spec> specs = new ArrayList<>();
-  private final ThreadLocal<Spec> currentSpec = new ThreadLocal<>();
-  private final ThreadLocal<List<Example>> currentExampleList = new ThreadLocal<>();
+  private ExecutionStrategy executionStrategy = ExecutionStrategy.forkJoin();
+  private Duration defaultTimeout;
+  private int maxFailures;  // 0 means no limit
+  private Filter filter = Filter.all();
+  private boolean softAssertions;
+  private int maxSoftStackTraces = 1;
+  private int maxStackFrames;  // 0 means no limit
+  private Path timingHistory;
+  private Path outcomeHistory;
+  private final ContextScope<Definition> currentDefinition = ContextScope.create();
+  
+  // the spec being defined, the examples defined so far and the fixtures of the spec
+  private static class Definition {
+    final Spec spec;
+    final List<Example> examples;
+    final Filter filter;                           // the filter of the run
+    final List<Example> filteredExamples;          // rejected by the filter, kept in the histories
+    final Map<String, Fixture<?>> sharedFixtures;  // shared by all specs of a run
+    final Map<String, Integer> occurrences;        // by declared class and description, shared by all specs of a run
+    final ArrayList<Fixture<?>> fixtures = new ArrayList<>();
+    int pendingExamples;    // guarded by the FixtureCloser
+    int abandonedThreads;   // guarded by the FixtureCloser
+    boolean closed;         // guarded by the FixtureCloser
+    
+    Definition(Spec spec, List<Example> examples, Filter filter, List<Example> filteredExamples,
+               Map<String, Fixture<?>> sharedFixtures, Map<String, Integer> occurrences) {
+      this.spec = spec;
+      this.examples = examples;
+      this.filter = filter;
+      this.filteredExamples = filteredExamples;
+      this.sharedFixtures = sharedFixtures;
+      this.occurrences = occurrences;
+    }
+  }
   
   public void describe(Class<?> classToken, TestDefinition testDefinition) {
-    specs.add(new Spec(classToken, testDefinition));
+    describe(classToken, testDefinition, null, Collections.emptySet());
+  }
+  
+  /**
+   * Like {@link #describe(Class, TestDefinition)} but each example of the spec
+   * that doesn't specify its own timeout must finish before the timeout.
+   */
+  public void describe(Class<?> classToken, Duration timeout, TestDefinition testDefinition) {
+    describe(classToken, testDefinition, requirePositive(timeout), Collections.emptySet());
+  }
+  
+  private void describe(Class<?> classToken, TestDefinition testDefinition, Duration timeout, Set<String> tags) {
+    specs.add(new Spec(classToken, testDefinition, timeout, tags));
   }
   
   public void given(String description, Runnable action) {
-    List<Example> exampleList = currentExampleList.get();
-    if (exampleList == null) {
-      throw new IllegalStateException("given() should be called inside a describe() block");
+    given(description, action, false, null, Collections.emptySet());
+  }
+  
+  /**
+   * Like {@link #given(String, Runnable)} but the example must finish before the timeout
+   * otherwise a {@link TimeoutError} is reported and the example is interrupted.
+   */
+  public void given(String description, Duration timeout, Runnable action) {
+    given(description, action, false, requirePositive(timeout), Collections.emptySet());
+  }
+  
+  /**
+   * Like {@link #given(String, Runnable)} but declares that the fixture created by the action
+   * can be read by several threads, so all the should() blocks of the example are run in parallel.
+   * The tests are still reported in declaration order.
+   */
+  public void givenConcurrent(String description, Runnable action) {
+    given(description, action, true, null, Collections.emptySet());
+  }
+  
+  /**
+   * Defines an example that receives its behavior as parameter, unlike the behavior of
+   * {@link #describe(Class, TestDefinition)}, this one is not bound to the current thread,
+   * so the tests can be defined by any thread until the definition returns.
+   * By example, {@code given("a list", it -> executor.submit(() -> it.should(...)).get())}.
+   */
+  public void given(String description, TestDefinition definition) {
+    given(description, definition, Collections.emptySet());
+  }
+  
+  private void given(String description, Runnable action, boolean concurrent, Duration timeout, Set<String> tags) {
+    addExample(new Example(definition().spec, description, action, concurrent, timeout, tags));
+  }
+  
+  private void given(String description, TestDefinition definition, Set<String> tags) {
+    addExample(new DefinedExample(definition().spec, description, definition, tags));
+  }
+  
+  private void addExample(Example example) {
+    addExample(example, definition().filter.acceptExample(example));
+  }
+  
+  // the examples of a declared class with the same description are numbered in declaration order,
+  // so each one has its own entry in the histories, whatever the filter
+  private void addExample(Example example, boolean accepted) {
+    Definition definition = definition();
+    example.occurrence = definition.occurrences.merge(
+        example.getSpec().getDeclaredClass().getName() + '\t' + example.getDescription(), 1, Integer::sum) - 1;
+    if (accepted) {
+      definition.examples.add(example);
+    } else {
+      definition.filteredExamples.add(example);
+    }
+  }
+  
+  /**
+   * Defines a fixture of the current spec, the value is created by the supplier the first time
+   * {@link Fixture#get()} is called, by any example, and then shared by all the examples of the spec.
+   * If the value is {@link AutoCloseable}, it's closed once all the examples of the spec have run,
+   * an example that has not finished before its timeout is only considered as run when its thread ends.
+   * If a fixture fails to close, {@link #run(Listener)} throws an {@link IllegalStateException}
+   * once the histories are saved.
+   * By example
+   * <pre>
+   * describe(TreeSet.class, it -&gt; {
+   *   Fixture&lt;TreeSet&lt;Integer&gt;&gt; set = fixture("a big set", () -&gt; ...);
+   *   given("a big set", () -&gt; {
+   *     it.should("contain 0", verify -&gt; verify.that(set.get().contains(0)).isTrue());
+   *   });
+   * });
+   * </pre>
+   * The examples should only read the value, it's created again each time the specs are run.
+   */
+  public <T> Fixture<T> fixture(String name, Supplier<? extends T> supplier) {
+    Objects.requireNonNull(supplier);
+    Fixture<T> fixture = new Fixture<>(Objects.requireNonNull(name), supplier);
+    definition("fixture() should be called inside a describe() block").fixtures.add(fixture);
+    return fixture;
+  }
+  
+  /**
+   * Like {@link #fixture(String, Supplier)} but the fixture is shared by all the specs
+   * that use the same key, the supplier of the first spec that defines the key is used.
+   * The value is closed at the end of the run.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Fixture<T> sharedFixture(String key, Supplier<? extends T> supplier) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(supplier);
+    return (Fixture<T>)definition("sharedFixture() should be called inside a describe() block").sharedFixtures.computeIfAbsent(key, __ -> new Fixture<>(key, supplier));
+  }
+  
+  private Definition definition() {
+    return definition("given() should be called inside a describe() block");
+  }
+  
+  private Definition definition(String message) {
+    Definition definition = currentDefinition.get();
+    if (definition == null) {
+      throw new IllegalStateException(message);
     }
-    exampleList.add(new Example(currentSpec.get(), description, action));
+    return definition;
+  }
+  
+  /**
+   * Defines one example by parameter, the parameters are pulled from the iterator
+   * while the examples are run so they don't need to be all in memory.
+   * The description of an example is {@code String.format(description, parameter)}
+   * and is only computed when a listener asks for it, if the description has no format specifier,
+   * the index of the row is appended, so the rows have different descriptions.
+   * The rows are not recorded one by one in the histories, the timing history records
+   * the total duration of the rows and the outcome history doesn't record them,
+   * so a parameterized example is always run.
+   */
+  public <P> void given(String description, Supplier<? extends Iterator<? extends P>> parameters, Consumer<? super P> action) {
+    given(description, parameters, action, Collections.emptySet());
+  }
+  
+  /**
+   * Like {@link #given(String, Supplier, Consumer)} with the parameters of a stream,
+   * the stream is consumed each time the specs are run.
+   */
+  public <P> void given(String description, Stream<? extends P> parameters, Consumer<? super P> action) {
+    given(description, parameters::iterator, action, Collections.emptySet());
+  }
+  
+  private <P> void given(String description, Supplier<? extends Iterator<? extends P>> parameters, Consumer<? super P> action, Set<String> tags) {
+    ParameterizedExample<P> example = new ParameterizedExample<>(definition().spec, description, parameters, action, tags);
+    // the filter is applied on each example when run, here it can only reject all of them
+    addExample(example, definition().filter.acceptParameterizedExample(example));
+  }
+  
+  /**
+   * Returns an object that defines specs and examples with some tags,
+   * by example {@code tagged("slow").given("a big list", () -> ...)}.
+   */
+  public Tagged tagged(String... tags) {
+    return new Tagged(Collections.unmodifiableSet(new HashSet<>(Arrays.asList(tags))));
+  }
+  
+  public class Tagged {
+    private final Set<String> tags;
+    
+    Tagged(Set<String> tags) {
+      this.tags = tags;
+    }
+    
+    public void describe(Class<?> classToken, TestDefinition testDefinition) {
+      JaySpec.this.describe(classToken, testDefinition, null, tags);
+    }
+    public void describe(Class<?> classToken, Duration timeout, TestDefinition testDefinition) {
+      JaySpec.this.describe(classToken, testDefinition, requirePositive(timeout), tags);
+    }
+    public void given(String description, Runnable action) {
+      JaySpec.this.given(description, action, false, null, tags);
+    }
+    public void given(String description, Duration timeout, Runnable action) {
+      JaySpec.this.given(description, action, false, requirePositive(timeout), tags);
+    }
+    public void givenConcurrent(String description, Runnable action) {
+      JaySpec.this.given(description, action, true, null, tags);
+    }
+    public <P> void given(String description, Supplier<? extends Iterator<? extends P>> parameters, Consumer<? super P> action) {
+      JaySpec.this.given(description, parameters, action, tags);
+    }
+    public <P> void given(String description, Stream<? extends P> parameters, Consumer<? super P> action) {
+      JaySpec.this.given(description, parameters::iterator, action, tags);
+    }
+    public void given(String description, TestDefinition definition) {
+      JaySpec.this.given(description, definition, tags);
+    }
+  }
+  
+  private static Duration requirePositive(Duration timeout) {
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("timeout should be positive " + timeout);
+    }
+    return timeout;
   }
   
   public List<Spec> getSpecs() {
     return specs;
   }
   
-  static void stackTraceDiff(Throwable stackTrace, Throwable base) {
-    StackTraceElement[] stackElements = stackTrace.getStackTrace();
-    if (stackElements.length == 0) {  // an exception with no stack trace
-      return;
+  public ExecutionStrategy getExecutionStrategy() {
+    return executionStrategy;
+  }
+  public void setExecutionStrategy(ExecutionStrategy executionStrategy) {
+    this.executionStrategy = Objects.requireNonNull(executionStrategy);
+  }
+  
+  /**
+   * Returns the timeout used by the examples that have no timeout
+   * and are not in a spec with a timeout, or null if there is no default timeout.
+   */
+  public Duration getDefaultTimeout() {
+    return defaultTimeout;
+  }
+  public void setDefaultTimeout(Duration defaultTimeout) {
+    this.defaultTimeout = (defaultTimeout == null)? null: requirePositive(defaultTimeout);
+  }
+  
+  /**
+   * Returns the number of failures after which the examples not yet started are skipped,
+   * 0 means that all examples are always run.
+   */
+  public int getMaxFailures() {
+    return maxFailures;
+  }
+  public void setMaxFailures(int maxFailures) {
+    if (maxFailures < 0) {
+      throw new IllegalArgumentException("maxFailures should be positive or zero " + maxFailures);
     }
-    StackTraceElement[] baseElements = base.getStackTrace();
-    if (stackElements.length < baseElements.length) { // something goes wrong
-      return;
+    this.maxFailures = maxFailures;
+  }
+  /**
+   * Equivalent to {@code setMaxFailures(failFast? 1: 0)}.
+   */
+  public void setFailFast(boolean failFast) {
+    setMaxFailures(failFast? 1: 0);
+  }
+  
+  public boolean isSoftAssertions() {
+    return softAssertions;
+  }
+  /**
+   * Enables the soft assertions, a failed assertion doesn't stop its test,
+   * all the failed assertions of a test are reported together at the end of the test.
+   * 
+   * @see JayAssertion.SoftChecker
+   */
+  public void setSoftAssertions(boolean softAssertions) {
+    this.softAssertions = softAssertions;
+  }
+  
+  public int getMaxSoftStackTraces() {
+    return maxSoftStackTraces;
+  }
+  /**
+   * Sets the number of failed soft assertions of a test that capture their stack trace,
+   * capturing a stack trace is the most costly part of a failure.
+   */
+  public void setMaxSoftStackTraces(int maxSoftStackTraces) {
+    if (maxSoftStackTraces < 0) {
+      throw new IllegalArgumentException("maxSoftStackTraces should be positive or zero " + maxSoftStackTraces);
     }
-    stackTrace.setStackTrace(Arrays.copyOf(stackElements, stackElements.length - baseElements.length));
+    this.maxSoftStackTraces = maxSoftStackTraces;
   }
   
-  public <R> List<R> runTest(Reporter<? extends R> reporter) {
-    JayAssertion assertion = new JayAssertion();
-    ThreadLocal<Example> currentExample = new ThreadLocal<>();
-    ThreadLocal<List<R>> currentReportList = new ThreadLocal<>();
-    Behavior behavior = (description, consumer) -> {
-      Example example = currentExample.get();
-      List<R> reportList = currentReportList.get();
-      if (example == null || reportList == null) {
-        throw new IllegalStateException("should() can only be called in a given() block");
+  public int getMaxStackFrames() {
+    return maxStackFrames;
+  }
+  /**
+   * Sets the maximum number of frames of the stack trace of a failed assertion,
+   * the stack trace only contains the frames of the test code, 1 only records
+   * the frame calling the assertion, 0 means no limit.
+   */
+  public void setMaxStackFrames(int maxStackFrames) {
+    if (maxStackFrames < 0) {
+      throw new IllegalArgumentException("maxStackFrames should be positive or zero " + maxStackFrames);
+    }
+    this.maxStackFrames = maxStackFrames;
+  }
+  
+  /**
+   * Returns the file storing the durations of the examples of the previous runs or null.
+   */
+  public Path getTimingHistory() {
+    return timingHistory;
+  }
+  /**
+   * Sets the file storing the durations of the examples of the previous runs,
+   * if set, the examples are started from the slowest to the fastest,
+   * the examples with no known duration being started first.
+   * This file is updated at the end of each run.
+   */
+  public void setTimingHistory(Path timingHistory) {
+    this.timingHistory = timingHistory;
+  }
+  
+  /**
+   * Returns the file storing the outcomes of the examples of the previous runs or null.
+   */
+  public Path getOutcomeHistory() {
+    return outcomeHistory;
+  }
+  /**
+   * Enables the incremental mode, the outcomes of the examples are stored in a file
+   * and the examples that have passed during the previous run are not run again
+   * unless the bytecode of the declared class of their spec or the bytecode
+   * of the class defining the spec has changed.
+   * This file is updated at the end of each run.
+   */
+  public void setOutcomeHistory(Path outcomeHistory) {
+    this.outcomeHistory = outcomeHistory;
+  }
+  
+  public Filter getFilter() {
+    return filter;
+  }
+  public void setFilter(Filter filter) {
+    this.filter = Objects.requireNonNull(filter);
+  }
+  
+  static ThreadFactory virtualThreadFactory() {
+    ThreadFactory factory = findVirtualThreadFactory();
+    return (factory == null)? Thread::new: factory;
+  }
+  
+  // null if the virtual threads are not available
+  private static ThreadFactory findVirtualThreadFactory() {
+    // Thread.ofVirtual().factory() is only available since Java 21 (a preview API before)
+    Class<?> builderClass = (JdkSupport.featureVersion() >= 21)? JdkSupport.findClass("java.lang.Thread$Builder"): null;
+    if (builderClass == null) {
+      return null;
+    }
+    MethodHandle ofVirtual = JdkSupport.findStatic(Thread.class, "ofVirtual",
+        MethodType.methodType(JdkSupport.findClass("java.lang.Thread$Builder$OfVirtual")), MethodType.methodType(Object.class));
+    MethodHandle factory = JdkSupport.findVirtual(builderClass, "factory",
+        MethodType.methodType(ThreadFactory.class), MethodType.methodType(ThreadFactory.class, Object.class));
+    if (ofVirtual == null || factory == null) {
+      return null;
+    }
+    try {
+      return (ThreadFactory)factory.invokeExact(ofVirtual.invokeExact());
+    } catch (Throwable t) {
+      throw JdkSupport.rethrow(t);
+    }
+  }
+  
+  // the threads are not kept, once all examples are started, all the permits are acquired
+  // so the method returns when the last running example has released its permit.
+  // The next example is only pulled once a permit is available
+  static void runInThreads(ExampleCursor examples, Consumer<? super Example> runner, ThreadFactory factory, int maxConcurrency) {
+    Semaphore semaphore = new Semaphore(maxConcurrency);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    for(;;) {
+      semaphore.acquireUninterruptibly();
+      Example example = examples.next();
+      if (example == null) {
+        semaphore.release();
+        break;
       }
-      
-      Throwable error;
-      try {
-        consumer.accept(assertion);
-        error = null;
-      } catch(Exception|AssertionError e) {
-        stackTraceDiff(e, new Throwable());
-        error = e;
+      Thread thread = factory.newThread(() -> {
+        try {
+          runner.accept(example);
+        } catch(Throwable t) {
+          failure.compareAndSet(null, t);
+        } finally {
+          semaphore.release();
+        }
+      });
+      thread.start();
+    }
+    semaphore.acquireUninterruptibly(maxConcurrency);
+    
+    Throwable throwable = failure.get();
+    if (throwable != null) {
+      throw JdkSupport.rethrow(throwable);
+    }
+  }
+  
+  // like the default checker of JayAssertion but the stack trace of the error
+  // only contains the frames of the test, see StackCapture
+  private static Checker checker(int maxStackFrames) {
+    return new Checker() {
+      @Override
+      public <E> void check(E actual, Predicate<? super E> predicate, Supplier<String> textSupplier) {
+        if (!predicate.test(actual)) {
+          throw new InvalidAssertionError("Invalid assertion, " + String.format(textSupplier.get(), actual),
+              StackCapture.userFrames(maxStackFrames));
+        }
+      }
+    };
+  }
+  
+  private static class Test {
+    final String description;
+    final AssertionConsumer consumer;
+    
+    Test(String description, AssertionConsumer consumer) {
+      this.description = description;
+      this.consumer = consumer;
+    }
+  }
+  
+  private static Throwable verify(AssertionConsumer consumer, JayAssertion assertion) {
+    try {
+      consumer.accept(assertion);
+      return null;
+    } catch(Exception|AssertionError e) {
+      StackCapture.trimRunnerFrames(e);
+      return e;
+    }
+  }
+  
+  // each test has its own checker that records the failures
+  private static Throwable verifySoftly(AssertionConsumer consumer, int maxStackTraces, int maxStackFrames) {
+    SoftChecker checker = new SoftChecker(maxStackTraces, maxStackFrames);
+    Throwable error = verify(consumer, new JayAssertion(checker));
+    AssertionError failure = checker.failure();
+    if (failure == null) {
+      return error;
+    }
+    if (error == null) {
+      return failure;
+    }
+    error.addSuppressed(failure);  // the test has stopped with an exception after some soft failures
+    return error;
+  }
+  
+  @FunctionalInterface
+  private interface Verifier {
+    Throwable verify(AssertionConsumer consumer);
+  }
+  
+  // the state of an example being executed, it's also the behavior of the example,
+  // so should() can be called by any thread until the example returns
+  private static class ExampleRun implements Behavior {
+    final Example example;
+    final Listener listener;
+    final Verifier verifier;
+    final ArrayList<Test> tests = new ArrayList<>();  // delayed tests of a concurrent example
+    volatile String runningTest;
+    volatile boolean defined;  // true once the example has returned
+    
+    ExampleRun(Example example, Listener listener, Verifier verifier) {
+      this.example = example;
+      this.listener = listener;
+      this.verifier = verifier;
+    }
+    
+    @Override
+    public void should(String description, AssertionConsumer consumer) {
+      if (defined) {
+        throw new IllegalStateException("should(\"" + description + "\") is called after the end of the example "
+            + example.getDescription() + ", the example should wait for the threads that define its tests");
+      }
+      if (example.isConcurrent()) {  // delay the test
+        synchronized(tests) {
+          tests.add(new Test(description, consumer));
+        }
+        return;
+      }
+      runningTest = description;
+      long start = System.nanoTime();
+      Throwable error = verifier.verify(consumer);
+      listener.testFinished(example, description, error, System.nanoTime() - start);
+    }
+  }
+  
+  // forward the events of an example until the example is finished or is aborted (timeout or interruption)
+  private static class TimeoutGuard implements Listener {
+    private final Listener listener;
+    private boolean finished;
+    
+    TimeoutGuard(Listener listener) {
+      this.listener = listener;
+    }
+    
+    @Override
+    public synchronized void exampleStarted(Example example) {
+      if (!finished) {
+        listener.exampleStarted(example);
+      }
+    }
+    @Override
+    public synchronized void testFinished(Example example, String description, Throwable error, long duration) {
+      if (!finished) {
+        listener.testFinished(example, description, error, duration);
+      }
+    }
+    @Override
+    public synchronized void exampleFinished(Example example, long duration) {
+      if (!finished) {
+        finished = true;
+        listener.exampleFinished(example, duration);
+      }
+    }
+    
+    // report the timeout unless the example has finished in between
+    synchronized void abort(Example example, String description, Throwable error, long duration) {
+      if (!finished) {
+        listener.testFinished(example, description, error, duration);
+        exampleFinished(example, duration);
+      }
+    }
+  }
+  
+  // count the failures and tell when the maximum number of failures is reached
+  private static class FailureBudget implements Listener {
+    private final Listener listener;
+    private final int maxFailures;
+    private final AtomicInteger failureCount = new AtomicInteger();
+    
+    FailureBudget(Listener listener, int maxFailures) {
+      this.listener = listener;
+      this.maxFailures = maxFailures;
+    }
+    
+    boolean isExhausted() {
+      return failureCount.get() >= maxFailures;
+    }
+    
+    @Override
+    public void specStarted(Spec spec) {
+      listener.specStarted(spec);
+    }
+    @Override
+    public void exampleStarted(Example example) {
+      listener.exampleStarted(example);
+    }
+    @Override
+    public void testFinished(Example example, String description, Throwable error, long duration) {
+      if (error != null) {
+        failureCount.incrementAndGet();
+      }
+      listener.testFinished(example, description, error, duration);
+    }
+    @Override
+    public void exampleFinished(Example example, long duration) {
+      listener.exampleFinished(example, duration);
+    }
+    @Override
+    public void exampleSkipped(Example example) {
+      listener.exampleSkipped(example);
+    }
+    @Override
+    public void exampleCached(Example example, int testCount) {
+      listener.exampleCached(example, testCount);
+    }
+  }
+  
+  public void run(Listener listener) {
+    run(listener, filter, softAssertions, timingHistory, outcomeHistory);
+  }
+  
+  // the configuration of the run is passed as arguments, so run() can add the one
+  // of the system properties without changing the one of the instance
+  private void run(Listener listener, Filter filter, boolean softAssertions, Path timingHistory, Path outcomeHistory) {
+    TimingHistory history;
+    OutcomeHistory outcomes;
+    try {
+      history = (timingHistory == null)? null: TimingHistory.load(timingHistory);
+      outcomes = (outcomeHistory == null)? null: OutcomeHistory.load(outcomeHistory);
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (history != null) {
+      listener = listener.and(history);
+    }
+    if (outcomes != null) {
+      listener = listener.and(outcomes);
+    }
+    FailureBudget budget = (maxFailures == 0)? null: new FailureBudget(listener, maxFailures);
+    List<Throwable> closeErrors = run((budget == null)? listener: budget, budget, filter, softAssertions, history, outcomes);
+    try {
+      if (history != null) {
+        history.save();
+      }
+      if (outcomes != null) {
+        outcomes.save();
       }
-      reportList.add(reporter.createReport(example, description, error));
+    } catch(IOException e) {
+      UncheckedIOException exception = new UncheckedIOException(e);
+      closeErrors.forEach(exception::addSuppressed);
+      throw exception;
+    }
+    if (!closeErrors.isEmpty()) {
+      throw closeFailure(closeErrors);
+    }
+  }
+  
+  // returns the errors raised when closing the fixtures
+  private List<Throwable> run(Listener listener, FailureBudget budget, Filter filter, boolean softAssertions,
+                              TimingHistory history, OutcomeHistory outcomes) {
+    int maxStackTraces = maxSoftStackTraces;
+    int maxFrames = maxStackFrames;
+    JayAssertion assertion = new JayAssertion(checker(maxFrames));
+    Verifier verifier = softAssertions?
+        consumer -> verifySoftly(consumer, maxStackTraces, maxFrames):
+        consumer -> verify(consumer, assertion);
+    // the behavior of describe() forwards to the example run bound to the current thread,
+    // another thread has no example run, given(description, behavior -> ...) should be used instead
+    ContextScope<ExampleRun> currentRun = ContextScope.create();
+    Behavior behavior = (description, consumer) -> {
+      ExampleRun run = currentRun.get();
+      if (run == null) {
+        throw new IllegalStateException("should() can only be called by the thread running a given() block, "
+            + "to call should() from another thread, use given(description, behavior -> ...) and behavior.should()");
+      }
+      run.should(description, consumer);
     };
     ArrayList<Example> examples = new ArrayList<>();
-    currentExampleList.set(examples);
+    ArrayList<Example> filteredExamples = new ArrayList<>();
+    HashSet<String> filteredSpecs = new HashSet<>();  // the names of the declared classes
+    LinkedHashMap<String, Fixture<?>> sharedFixtures = new LinkedHashMap<>();
+    HashMap<String, Integer> occurrences = new HashMap<>();
+    HashMap<Spec, Definition> fixtureMap = new HashMap<>();  // only the specs with fixtures
+    for(Spec spec: specs) {
+      if (!filter.acceptSpec(spec)) {
+        filteredSpecs.add(spec.getDeclaredClass().getName());
+        continue;
+      }
+      listener.specStarted(spec);
+      Definition definition = new Definition(spec, examples, filter, filteredExamples, sharedFixtures, occurrences);
+      currentDefinition.runWhere(definition, () -> spec.getTestDefinition().define(behavior));
+      if (!definition.fixtures.isEmpty()) {
+        fixtureMap.put(spec, definition);
+      }
+    }
+    
+    for(int i = 0; i < examples.size(); i++) {
+      examples.get(i).declarationIndex = i;
+    }
+    // the histories drop the examples that no longer exist, the examples and the specs
+    // rejected by the filter still exist, so they are kept
+    if (history != null || outcomes != null) {
+      ArrayList<Example> existingExamples = new ArrayList<>(examples);
+      existingExamples.addAll(filteredExamples);
+      if (history != null) {
+        history.retain(existingExamples, filteredSpecs);
+      }
+      if (outcomes != null) {
+        outcomes.retain(existingExamples, filteredSpecs);
+      }
+    }
+    if (outcomes != null) {
+      outcomes.removeCachedPasses(examples, listener);
+    }
+    if (history != null) {
+      history.sortLongestFirst(examples);
+    }
+    
+    FixtureCloser closer = (fixtureMap.isEmpty() && sharedFixtures.isEmpty())? null:
+        new FixtureCloser(fixtureMap, sharedFixtures.values(), examples);
+    Consumer<Example> runner = example -> {
+      if (budget != null && budget.isExhausted()) {
+        listener.exampleSkipped(example);
+        return;
+      }
+      Duration timeout = timeout(example);
+      if (timeout == null) {
+        runExample(new ExampleRun(example, listener, verifier), currentRun);
+        return;
+      }
+      runExampleWithTimeout(example, timeout, listener, currentRun, verifier, closer);
+    };
+    if (closer == null) {
+      executionStrategy.execute(new RowCursor(examples, filter, budget, __ -> { /* empty */ }), runner);
+      return Collections.emptyList();
+    }
+    RowCursor cursor = new RowCursor(examples, filter, budget, closer::exampleFinished);
     try {
-      specs.forEach(spec -> {
-        currentSpec.set(spec);
-        spec.getTestDefinition().define(behavior);
+      executionStrategy.execute(cursor, example -> {
+        try {
+          runner.accept(example);
+        } finally {
+          cursor.exampleFinished(example);
+        }
       });
+    } catch(RuntimeException|Error e) {
+      closer.runFinished().forEach(e::addSuppressed);
+      throw e;
+    }
+    return closer.runFinished();
+  }
+  
+  private static IllegalStateException closeFailure(List<Throwable> errors) {
+    IllegalStateException exception = new IllegalStateException("fail to close " + errors.size() + " fixture(s)", errors.get(0));
+    errors.stream().skip(1).forEach(exception::addSuppressed);
+    return exception;
+  }
+  
+  // closes the fixtures of a spec once all its examples have finished, the thread of an example
+  // that has not finished before its timeout may still use the fixtures, so the fixtures are only closed
+  // once this thread ends, the shared fixtures are closed once the run and all those threads have ended.
+  // If a fixture fails to close after the end of the run, the exception is thrown by the ending thread
+  private static class FixtureCloser {
+    private final HashMap<Spec, Definition> definitionMap;  // only the specs with fixtures
+    private final ArrayList<Fixture<?>> sharedFixtures;
+    private final ArrayList<Throwable> errors = new ArrayList<>();
+    private int abandonedThreads;
+    private boolean runFinished;
+    
+    FixtureCloser(HashMap<Spec, Definition> definitionMap, Collection<Fixture<?>> sharedFixtures, List<Example> examples) {
+      this.definitionMap = definitionMap;
+      this.sharedFixtures = new ArrayList<>(sharedFixtures);
+      for(Example example: examples) {
+        Definition definition = definitionMap.get(example.getSpec());
+        if (definition != null) {
+          definition.pendingExamples++;
+        }
+      }
+      definitionMap.values().forEach(this::closeIfFinished);  // the specs without example
+    }
+    
+    void exampleFinished(Example example) {
+      Definition definition = definitionMap.get(example.getSpec());
+      if (definition == null) {
+        return;
+      }
+      synchronized(this) {
+        definition.pendingExamples--;
+        closeIfFinished(definition);
+      }
+    }
+    
+    synchronized void threadAbandoned(Example example) {
+      abandonedThreads++;
+      Definition definition = definitionMap.get(example.getSpec());
+      if (definition != null) {
+        definition.abandonedThreads++;
+      }
+    }
+    
+    void threadEnded(Example example) {
+      ArrayList<Throwable> lateErrors;
+      synchronized(this) {
+        abandonedThreads--;
+        Definition definition = definitionMap.get(example.getSpec());
+        if (definition != null) {
+          definition.abandonedThreads--;
+          closeIfFinished(definition);
+        }
+        if (!runFinished) {  // the errors are reported by the run
+          return;
+        }
+        closeSharedIfFinished();
+        lateErrors = new ArrayList<>(errors);
+        errors.clear();
+      }
+      if (!lateErrors.isEmpty()) {
+        throw closeFailure(lateErrors);
+      }
+    }
+    
+    // called at the end of the run even if it fails, returns the errors raised when closing the fixtures
+    synchronized List<Throwable> runFinished() {
+      runFinished = true;
+      definitionMap.values().forEach(this::closeIfFinished);
+      closeSharedIfFinished();
+      ArrayList<Throwable> runErrors = new ArrayList<>(errors);
+      errors.clear();
+      return runErrors;
+    }
+    
+    private void closeIfFinished(Definition definition) {
+      if (!definition.closed && definition.abandonedThreads == 0 && (definition.pendingExamples == 0 || runFinished)) {
+        definition.closed = true;
+        close(definition.fixtures);
+      }
+    }
+    
+    private void closeSharedIfFinished() {
+      if (abandonedThreads == 0) {
+        close(sharedFixtures);
+        sharedFixtures.clear();
+      }
+    }
+    
+    // close the fixtures in the reverse order of their definition
+    private void close(List<Fixture<?>> fixtures) {
+      for(int i = fixtures.size(); --i >= 0;) {
+        try {
+          fixtures.get(i).close();
+        } catch(Exception e) {
+          errors.add(e);
+        }
+      }
+    }
+  }
+  
+  // the examples in order with the parameterized examples replaced by their rows,
+  // the rows are pulled one by one by the threads of the execution strategy, so only the rows
+  // being run are in memory. Once the failure budget is exhausted, the remaining rows are not pulled.
+  // A parameterized example is finished when all its rows have been pulled and have run
+  private static class RowCursor implements ExampleCursor {
+    private final Iterator<Example> examples;
+    private final Filter filter;
+    private final FailureBudget budget;
+    private final Consumer<Example> finisher;
+    private ParameterizedExample<?> parameterized;  // the parameterized example whose rows are pulled
+    private Iterator<Example> rows;
+    private final HashMap<Example, Integer> runningRows = new HashMap<>();  // by parameterized example
+    
+    RowCursor(List<Example> examples, Filter filter, FailureBudget budget, Consumer<Example> finisher) {
+      this.examples = examples.iterator();
+      this.filter = filter;
+      this.budget = budget;
+      this.finisher = finisher;
+    }
+    
+    @Override
+    public synchronized Example next() {
+      for(;;) {
+        if (rows != null) {
+          while((budget == null || !budget.isExhausted()) && rows.hasNext()) {
+            Example row = rows.next();
+            if (filter.acceptExample(row)) {
+              runningRows.merge(parameterized, 1, Integer::sum);
+              return row;
+            }
+          }
+          if (!runningRows.containsKey(parameterized)) {
+            finisher.accept(parameterized);
+          }
+          parameterized = null;
+          rows = null;
+        }
+        if (!examples.hasNext()) {
+          return null;
+        }
+        Example example = examples.next();
+        if (!(example instanceof ParameterizedExample)) {
+          return example;
+        }
+        parameterized = (ParameterizedExample<?>)example;
+        rows = parameterized.examples();
+      }
+    }
+    
+    void exampleFinished(Example example) {
+      if (!(example instanceof ParameterExample)) {
+        finisher.accept(example);
+        return;
+      }
+      ParameterizedExample<?> template = ((ParameterExample<?>)example).template;
+      synchronized(this) {
+        Integer running = runningRows.merge(template, -1, (count, minusOne) -> (count == 1)? null: count + minusOne);
+        if (running == null && template != parameterized) {
+          finisher.accept(template);
+        }
+      }
+    }
+  }
+  
+  private Duration timeout(Example example) {
+    Duration timeout = example.getTimeout();
+    if (timeout != null) {
+      return timeout;
+    }
+    timeout = example.getSpec().getTimeout();
+    if (timeout != null) {
+      return timeout;
+    }
+    return defaultTimeout;
+  }
+  
+  private static void runExample(ExampleRun run, ContextScope<ExampleRun> currentRun) {
+    Example example = run.example;
+    Listener listener = run.listener;
+    Verifier verifier = run.verifier;
+    long start = System.nanoTime();
+    listener.exampleStarted(example);
+    try {
+      if (example instanceof DefinedExample) {
+        ((DefinedExample)example).definition.define(run);  // the run is passed, no lookup
+      } else {
+        currentRun.runWhere(run, example.getTest());
+      }
     } finally {
-      currentSpec.remove();
-      currentExampleList.remove();
+      run.defined = true;
     }
     
-    //FIXME remove explicit type when eclipse will work
-    return examples.parallelStream().<R>flatMap(example -> {
-      ArrayList<R> reportList = new ArrayList<>();
-      currentExample.set(example);
-      currentReportList.set(reportList);
+    ArrayList<Test> tests = run.tests;
+    if (!tests.isEmpty()) {  // run the tests of a concurrent example as fork-join sub-tasks
+      Throwable[] errors = new Throwable[tests.size()];
+      long[] durations = new long[errors.length];
+      IntStream.range(0, errors.length).parallel().forEach(i -> {
+        long testStart = System.nanoTime();
+        errors[i] = verifier.verify(tests.get(i).consumer);
+        durations[i] = System.nanoTime() - testStart;
+      });
+      for(int i = 0; i < errors.length; i++) {
+        listener.testFinished(example, tests.get(i).description, errors[i], durations[i]);
+      }
+    }
+    listener.exampleFinished(example, System.nanoTime() - start);
+  }
+  
+  // the threads of the examples with a timeout, a virtual thread by example if available,
+  // otherwise a shared pool of daemon threads; the class is only initialized if an example has a timeout
+  private static class TimeoutExecutor {
+    static final Executor EXECUTOR = executor();
+    
+    private static Executor executor() {
+      ThreadFactory factory = findVirtualThreadFactory();
+      if (factory != null) {
+        return command -> factory.newThread(command).start();
+      }
+      return Executors.newCachedThreadPool(command -> {
+        Thread thread = new Thread(command);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+  
+  private static void runExampleWithTimeout(Example example, Duration timeout, Listener listener,
+                                            ContextScope<ExampleRun> currentRun, Verifier verifier, FixtureCloser closer) {
+    // the example runs in a daemon (or virtual) thread so a hung example
+    // doesn't pin the current worker nor prevent the VM to exit
+    TimeoutGuard guard = new TimeoutGuard(listener);
+    ExampleRun run = new ExampleRun(example, guard, verifier);
+    FutureTask<Void> task = new FutureTask<>(() -> runExample(run, currentRun), null);
+    // if the example is abandoned, its thread tells the closer of the fixtures when it ends
+    AtomicBoolean ended = new AtomicBoolean();
+    AtomicReference<Thread> exampleThread = new AtomicReference<>();  // to get the stack trace on timeout
+    long start = System.nanoTime();
+    TimeoutExecutor.EXECUTOR.execute(() -> {
+      Thread thread = Thread.currentThread();
+      String name = thread.getName();  // the thread may be pooled
+      thread.setName("jayspec " + example);
+      exampleThread.set(thread);
       try {
-        example.getTest().run();
-        return reportList.stream();
+        task.run();
       } finally {
-        currentExample.remove();
-        currentReportList.remove();
+        exampleThread.set(null);
+        thread.setName(name);
+        if (!ended.compareAndSet(false, true) && closer != null) {
+          closer.threadEnded(example);
+        }
       }
-    }).collect(Collectors.<R>toList());
+    });
+    try {
+      task.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      throw JdkSupport.rethrow(e.getCause());
+    } catch (TimeoutException e) {
+      String runningTest = run.runningTest;
+      TimeoutError error = new TimeoutError(example.getDescription() + " has not finished after " + timeout +
+          ((runningTest == null)? "": " while verifying " + runningTest));
+      error.setStackTrace(stackTrace(exampleThread.get()));
+      // stop the reports of the example before interrupting it, it may or may not stop
+      abort(guard, example, runningTest, error, start, ended, closer, false);
+      task.cancel(true);
+    } catch (InterruptedException e) {
+      // the example is reported as failed so the listeners don't lose it
+      String runningTest = run.runningTest;
+      InterruptedException error = new InterruptedException("interrupted while waiting for " + example.getDescription() +
+          ((runningTest == null)? "": " verifying " + runningTest));
+      error.setStackTrace(stackTrace(exampleThread.get()));
+      abort(guard, example, runningTest, error, start, ended, closer, true);
+      task.cancel(true);
+    }
   }
   
-  public void run() {
-    List<Report> totalReports;
-    long startTime = System.currentTimeMillis();
-    totalReports = runTest(Report::new);
-    long endTime = System.currentTimeMillis();
-    Map<Spec, Map<Example, List<Report>>> map = totalReports.stream().collect(
-        Collectors.groupingBy(report -> report.getExample().getSpec(),
-            Collectors.<Report, Example>groupingBy(Report::getExample)
-        ));
-    
-    int[] failures = new int[1];
-    map.forEach((spec, exampleMap) -> {
-      exampleMap.forEach((example, reports) -> {
-        reports.forEach(report -> {
-          Throwable error = report.getError();
-          if (error != null) {
-            System.err.println(spec);
-            System.err.println("  " + example.getDescription() +
-                " fails to verify: " + report.getDescription());
-            error.printStackTrace();
-            failures[0]++;
+  // the thread is null if the example has not started yet
+  private static StackTraceElement[] stackTrace(Thread thread) {
+    return (thread == null)? new StackTraceElement[0]: thread.getStackTrace();
+  }
+  
+  // reports the aborted example, the guard then drops the reports of the example thread,
+  // and restores the interrupt status of the current thread even if a listener fails;
+  // the status is cleared while the listeners run because a listener doing I/O
+  // on an interruptible channel would see it closed
+  private static void abort(TimeoutGuard guard, Example example, String runningTest, Throwable error, long start,
+                            AtomicBoolean ended, FixtureCloser closer, boolean interrupted) {
+    interrupted |= Thread.interrupted();
+    try {
+      guard.abort(example, (runningTest == null)? example.getDescription(): runningTest, error, System.nanoTime() - start);
+    } finally {
+      abandon(example, ended, closer);
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+  
+  private static void abandon(Example example, AtomicBoolean ended, FixtureCloser closer) {
+    if (closer == null) {
+      return;
+    }
+    closer.threadAbandoned(example);
+    if (!ended.compareAndSet(false, true)) {  // the thread has already ended
+      closer.threadEnded(example);
+    }
+  }
+  
+  private static final Comparator<Example> DECLARATION_ORDER =
+      Comparator.comparingInt(Example::declarationIndex).thenComparingInt(Example::rowIndex);
+  
+  /**
+   * Runs the specs and returns the reports of all the tests in declaration order,
+   * i.e. ordered by example then in the order of the tests of each example.
+   */
+  public <R> List<R> runTest(Reporter<? extends R> reporter) {
+    ConcurrentHashMap<Example, List<R>> reportMap = new ConcurrentHashMap<>();
+    run((example, description, error, duration) -> {
+      R report = reporter.createReport(example, description, error, duration);
+      reportMap.computeIfAbsent(example, __ -> Collections.synchronizedList(new ArrayList<>())).add(report);
+    });
+    ArrayList<Example> examples = new ArrayList<>(reportMap.keySet());
+    examples.sort(DECLARATION_ORDER);
+    ArrayList<R> reports = new ArrayList<>();
+    for(Example example: examples) {
+      reports.addAll(reportMap.get(example));
+    }
+    return reports;
+  }
+  
+  /**
+   * Runs the specs and returns a compact report, unlike {@link #runTest(Reporter)},
+   * the passed tests are only counted, so the memory used doesn't grow with the number of passed tests.
+   */
+  public CompactReport runCompact() {
+    CompactReport report = new CompactReport();
+    run(report);
+    return report;
+  }
+  
+  public static class ConsoleListener implements Listener {
+    private final LongAdder reportCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder cachedExampleCount = new LongAdder();
+    private final LongAdder cachedTestCount = new LongAdder();
+    private final Slowest slowestExamples;
+    private final Slowest slowestTests;
+    private final ConcurrentHashMap<Spec, LongAdder> specDurationMap = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a console listener that also prints the slowestCount slowest examples and tests,
+     * and the time spent in each spec.
+     */
+    public ConsoleListener(int slowestCount) {
+      if (slowestCount < 0) {
+        throw new IllegalArgumentException("slowestCount should be positive or zero " + slowestCount);
+      }
+      this.slowestExamples = new Slowest(slowestCount);
+      this.slowestTests = new Slowest(slowestCount);
+    }
+    public ConsoleListener() {
+      this(0);
+    }
+    
+    @Override
+    public void testFinished(Example example, String description, Throwable error, long duration) {
+      reportCount.increment();
+      slowestTests.add(duration, example, description);
+      if (error == null) {
+        return;
+      }
+      failureCount.increment();
+      synchronized(System.err) {
+        System.err.println(example.getSpec());
+        System.err.println("  " + example.getDescription() +
+            " fails to verify: " + description);
+        error.printStackTrace();
+      }
+    }
+    
+    @Override
+    public void exampleFinished(Example example, long duration) {
+      slowestExamples.add(duration, example, null);
+      specDurationMap.computeIfAbsent(example.getSpec(), __ -> new LongAdder()).add(duration);
+    }
+    
+    @Override
+    public void exampleSkipped(Example example) {
+      skippedCount.increment();
+    }
+    
+    @Override
+    public void exampleCached(Example example, int testCount) {
+      cachedExampleCount.increment();
+      cachedTestCount.add(testCount);
+    }
+    
+    // keep the count slowest elements, an element is an example and a test description
+    private static class Slowest {
+      private static class Entry {
+        final long duration;
+        final Example example;
+        final String description;
+        
+        Entry(long duration, Example example, String description) {
+          this.duration = duration;
+          this.example = example;
+          this.description = description;
+        }
+      }
+      
+      private final int count;
+      private final PriorityQueue<Entry> queue;  // the fastest first
+      private volatile long threshold;           // duration of the fastest when the queue is full
+      
+      Slowest(int count) {
+        this.count = count;
+        this.queue = new PriorityQueue<>(count + 1, (e1, e2) -> Long.compare(e1.duration, e2.duration));
+      }
+      
+      void add(long duration, Example example, String description) {
+        if (count == 0 || duration <= threshold) {  // fast path, no lock
+          return;
+        }
+        synchronized(queue) {
+          queue.offer(new Entry(duration, example, description));
+          if (queue.size() > count) {
+            queue.poll();
           }
+          if (queue.size() == count) {
+            threshold = queue.peek().duration;
+          }
+        }
+      }
+      
+      List<Entry> slowestFirst() {
+        ArrayList<Entry> entries;
+        synchronized(queue) {
+          entries = new ArrayList<>(queue);
+        }
+        entries.sort((e1, e2) -> Long.compare(e2.duration, e1.duration));
+        return entries;
+      }
+    }
+    
+    private static String millis(long duration) {
+      return String.format("%10.3f ms", duration / 1_000_000.0);
+    }
+    
+    /**
+     * Prints the summary of the run, the duration of the run is in nanoseconds.
+     */
+    public void printSummary(long duration) {
+      if (slowestExamples.count != 0) {
+        System.out.println("\nSlowest examples:");
+        slowestExamples.slowestFirst().forEach(entry -> {
+          System.out.println(millis(entry.duration) + "  " + entry.example.getSpec() + ", given " + entry.example.getDescription());
         });
-      });
-    });
+        System.out.println("\nSlowest tests:");
+        slowestTests.slowestFirst().forEach(entry -> {
+          System.out.println(millis(entry.duration) + "  " + entry.example.getSpec() + ", given " + entry.example.getDescription() +
+              ", it should " + entry.description);
+        });
+        System.out.println("\nTime by spec:");
+        specDurationMap.entrySet().stream()
+          .sorted((e1, e2) -> Long.compare(e2.getValue().sum(), e1.getValue().sum()))
+          .forEach(entry -> System.out.println(millis(entry.getValue().sum()) + "  " + entry.getKey()));
+      }
+      
+      System.out.println("\nFinished in " + TimeUnit.NANOSECONDS.toMillis(duration) / 1000.0 + " seconds.");
+      System.out.println("Among " + reportCount.sum() + " report(s), " + failureCount.sum()  + " failed.");
+      long skipped = skippedCount.sum();
+      if (skipped != 0) {
+        System.out.println("Run truncated after too many failures, " + skipped + " example(s) not run.");
+      }
+      long cachedExamples = cachedExampleCount.sum();
+      if (cachedExamples != 0) {
+        System.out.println("Skipped " + cachedTestCount.sum() + " cached pass(es) of " + cachedExamples + " unchanged example(s).");
+      }
+    }
+  }
+  
+  /**
+   * Runs the specs and prints the failures and a summary on the console.
+   * 
+   * The system property "jayspec.shard", with a value like "2/8", only runs the examples of a shard
+   * (see {@link Filter#shard(int, int)}) and the system property "jayspec.report" is the path
+   * of a JSON Lines file receiving all the reports (see {@link JsonLinesListener}),
+   * the reports of several shards can be merged with {@link ReportMerger}.
+   * The system property "jayspec.slowest" is the number of slowest examples and tests
+   * printed at the end of the run, 5 by default.
+   * The system property "jayspec.timings" is the path of a file storing the durations
+   * of the examples used to schedule the slowest examples first (see {@link #setTimingHistory(Path)}).
+   * The system property "jayspec.incremental" is the path of a file storing the outcomes
+   * of the examples, only the failed or changed examples are run (see {@link #setOutcomeHistory(Path)}).
+   * The system property "jayspec.soft" enables the soft assertions (see {@link #setSoftAssertions(boolean)}).
+   * The system property "jayspec.junit" is the path of a JUnit XML file receiving all the reports
+   * (see {@link JUnitXmlListener}) and the system property "jayspec.console", true by default,
+   * prints the failures and the summary on the console.
+   */
+  public void run() {
+    // the system properties only apply to this run, the configuration of the instance is not changed
+    Filter filter = this.filter;
+    String shard = System.getProperty("jayspec.shard");
+    if (shard != null) {
+      int slash = shard.indexOf('/');
+      if (slash == -1) {
+        throw new IllegalArgumentException("jayspec.shard should be index/count " + shard);
+      }
+      filter = filter.and(Filter.shard(Integer.parseInt(shard.substring(0, slash)),
+                                       Integer.parseInt(shard.substring(slash + 1))));
+    }
+    String report = System.getProperty("jayspec.report");
+    String timings = System.getProperty("jayspec.timings");
+    Path timingHistory = (timings == null)? this.timingHistory: Paths.get(timings);
+    String incremental = System.getProperty("jayspec.incremental");
+    Path outcomeHistory = (incremental == null)? this.outcomeHistory: Paths.get(incremental);
+    boolean softAssertions = this.softAssertions || Boolean.getBoolean("jayspec.soft");
+    
+    String junit = System.getProperty("jayspec.junit");
+    boolean printConsole = Boolean.parseBoolean(System.getProperty("jayspec.console", "true"));
     
-    System.out.println("\nFinished in " + (endTime - startTime) / 1000.0 + " seconds.");
-    System.out.println("Among " + totalReports.size() + " report(s), " + failures[0]  + " failed.");
+    ConsoleListener console = printConsole? new ConsoleListener(Integer.getInteger("jayspec.slowest", 5)): null;
+    long startTime = System.nanoTime();
+    try(JsonLinesListener jsonLines = (report == null)? null: new JsonLinesListener(Paths.get(report));
+        JUnitXmlListener junitXml = (junit == null)? null: new JUnitXmlListener(Paths.get(junit))) {
+      Listener listener = console;
+      for(Listener reportListener: new Listener[] { jsonLines, junitXml }) {
+        if (reportListener != null) {
+          listener = (listener == null)? reportListener: listener.and(reportListener);
+        }
+      }
+      run((listener == null)? (example, description, error, duration) -> { /* empty */ }: listener,
+          filter, softAssertions, timingHistory, outcomeHistory);
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {  // also if a fixture fails to close
+      if (console != null) {
+        console.printSummary(System.nanoTime() - startTime);
+      }
+    }
   }
 }
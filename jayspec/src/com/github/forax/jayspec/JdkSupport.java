@@ -0,0 +1,89 @@
+package com.github.forax.jayspec;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Helpers to use the APIs of the newer JDKs while the code is compiled for Java 8,
+ * the classes and the methods are looked up at runtime, a lookup returns null
+ * if the running JDK doesn't have the class or the method.
+ */
+final class JdkSupport {
+  private JdkSupport() {
+    throw new AssertionError();
+  }
+
+  // not the public lookup, it can not find caller sensitive methods like StackWalker.walk()
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /**
+   * Returns the feature version of the running JDK, 8 for a JDK 8.
+   */
+  static int featureVersion() {
+    String version = System.getProperty("java.specification.version");
+    try {
+      return version.startsWith("1.")? Integer.parseInt(version.substring(2)): Integer.parseInt(version);
+    } catch(NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  static Class<?> findClass(String name) {
+    try {
+      return Class.forName(name);
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+  }
+
+  static MethodHandle findStatic(Class<?> owner, String name, MethodType type) {
+    try {
+      return LOOKUP.findStatic(owner, name, type);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  static MethodHandle findVirtual(Class<?> owner, String name, MethodType type) {
+    try {
+      return LOOKUP.findVirtual(owner, name, type);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Like {@link #findStatic(Class, String, MethodType)} but the method handle is adapted
+   * to the invoked type, because the types of the newer JDKs can not be used by invokeExact.
+   */
+  static MethodHandle findStatic(Class<?> owner, String name, MethodType type, MethodType invokedType) {
+    MethodHandle mh = findStatic(owner, name, type);
+    return (mh == null)? null: mh.asType(invokedType);
+  }
+
+  /**
+   * Like {@link #findVirtual(Class, String, MethodType)} but the method handle is adapted
+   * to the invoked type, because the types of the newer JDKs can not be used by invokeExact.
+   */
+  static MethodHandle findVirtual(Class<?> owner, String name, MethodType type, MethodType invokedType) {
+    MethodHandle mh = findVirtual(owner, name, type);
+    return (mh == null)? null: mh.asType(invokedType);
+  }
+
+  /**
+   * Throws the throwable if it's an unchecked exception or an error,
+   * otherwise wraps it in an {@link UndeclaredThrowableException}.
+   * Used as {@code throw rethrow(t)} so the compiler knows that the code doesn't continue.
+   */
+  static RuntimeException rethrow(Throwable throwable) {
+    if (throwable instanceof RuntimeException) {
+      throw (RuntimeException)throwable;
+    }
+    if (throwable instanceof Error) {
+      throw (Error)throwable;
+    }
+    throw new UndeclaredThrowableException(throwable);
+  }
+}
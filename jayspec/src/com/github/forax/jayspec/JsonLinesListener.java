@@ -0,0 +1,102 @@
+package com.github.forax.jayspec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import com.github.forax.jayspec.JaySpec.Example;
+import com.github.forax.jayspec.JaySpec.Listener;
+
+/**
+ * A listener that writes one JSON object by line for each report as soon as it is received,
+ * by example
+ * <pre>
+ * {"spec":"java.util.ArrayList","example":"an empty list","test":"has a size == 0","status":"passed","duration":1234}
+ * </pre>
+ * status is either "passed", "failed" (with a field "error"), "skipped" or "cached" (with no field "test" and "duration"),
+ * duration is the duration of the test in nanoseconds.
+ * The lines are written in the order the reports are received through a buffered file channel.
+ */
+public class JsonLinesListener implements Listener, Closeable {
+  private final ChannelWriter writer;
+  
+  public JsonLinesListener(Path path) throws IOException {
+    this.writer = new ChannelWriter(path);
+  }
+  
+  @Override
+  public void testFinished(Example example, String description, Throwable error, long duration) {
+    write(example, description, (error == null)? "passed": "failed", error, duration);
+  }
+  
+  @Override
+  public void exampleSkipped(Example example) {
+    write(example, null, "skipped", null, -1);
+  }
+  
+  @Override
+  public void exampleCached(Example example, int testCount) {
+    write(example, null, "cached", null, -1);
+  }
+  
+  private void write(Example example, String description, String status, Throwable error, long duration) {
+    StringBuilder builder = new StringBuilder(128).append('{');
+    field(builder, "spec", example.getSpec().getDeclaredClass().getName()).append(',');
+    field(builder, "example", example.getDescription()).append(',');
+    if (description != null) {
+      field(builder, "test", description).append(',');
+    }
+    field(builder, "status", status);
+    if (duration != -1) {
+      builder.append(",\"duration\":").append(duration);
+    }
+    if (error != null) {
+      field(builder.append(','), "error", error.toString());
+    }
+    try {
+      writer.write(builder.append("}\n"));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+  
+  private static StringBuilder field(StringBuilder builder, String name, String value) {
+    return escape(escape(builder.append('"'), name).append("\":\""), value).append('"');
+  }
+  
+  private static StringBuilder escape(StringBuilder builder, String text) {
+    for(int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch(c) {
+      case '"':
+        builder.append("\\\"");
+        break;
+      case '\\':
+        builder.append("\\\\");
+        break;
+      case '\n':
+        builder.append("\\n");
+        break;
+      case '\r':
+        builder.append("\\r");
+        break;
+      case '\t':
+        builder.append("\\t");
+        break;
+      default:
+        if (c < 0x20) {
+          builder.append(String.format("\\u%04x", (int)c));
+        } else {
+          builder.append(c);
+        }
+      }
+    }
+    return builder;
+  }
+  
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+}
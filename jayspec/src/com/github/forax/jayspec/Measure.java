@@ -0,0 +1,131 @@
+package com.github.forax.jayspec;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The measure of the execution of an operation,
+ * see {@link JaySpec.Behavior#shouldMeasure(String, int, int, Runnable, JaySpec.MeasureConsumer)}.
+ */
+public final class Measure {
+  private final int iterations;
+  private final long duration;
+  private final long allocatedBytes;
+
+  Measure(int iterations, long duration, long allocatedBytes) {
+    this.iterations = iterations;
+    this.duration = duration;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * Returns the number of measured iterations, the warmup iterations are not included.
+   */
+  public int getIterations() {
+    return iterations;
+  }
+  /**
+   * Returns the duration of all the measured iterations.
+   */
+  public Duration getDuration() {
+    return Duration.ofNanos(duration);
+  }
+  /**
+   * Returns the average duration of an iteration in nanoseconds.
+   */
+  public double getNanosPerOperation() {
+    return (double)duration / iterations;
+  }
+  /**
+   * Returns the number of iterations by second.
+   */
+  public double getThroughput() {
+    return iterations * 1_000_000_000.0 / Math.max(1, duration);
+  }
+  /**
+   * Returns the number of bytes allocated by all the measured iterations
+   * or -1 if the VM can not count the allocated bytes.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+  /**
+   * Returns the average number of bytes allocated by an iteration
+   * or -1 if the VM can not count the allocated bytes.
+   */
+  public double getAllocatedBytesPerOperation() {
+    return (allocatedBytes == -1)? -1: (double)allocatedBytes / iterations;
+  }
+
+  @Override
+  public String toString() {
+    return iterations + " iteration(s) in " + getDuration() + ", " + getNanosPerOperation() + " ns/op" +
+        ((allocatedBytes == -1)? "": ", " + getAllocatedBytesPerOperation() + " B/op");
+  }
+
+  // measures are done one at a time, so two measures don't compete for the CPUs
+  private static final ReentrantLock MEASURE_LOCK = new ReentrantLock();
+
+  // the number of bytes allocated by the current thread or -1
+  private static long allocatedBytes() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+    com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean)threadMXBean;
+    if (!mxBean.isThreadAllocatedMemorySupported() || !mxBean.isThreadAllocatedMemoryEnabled()) {
+      return -1;
+    }
+    return mxBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static Measure measureInCurrentThread(int warmupIterations, int iterations, Runnable operation) {
+    for(int i = 0; i < warmupIterations; i++) {
+      operation.run();
+    }
+    // reading the counter allocates, this is removed from the measure
+    long firstRead = allocatedBytes();
+    long overhead = allocatedBytes() - firstRead;
+    long startBytes = allocatedBytes();
+    long start = System.nanoTime();
+    for(int i = 0; i < iterations; i++) {
+      operation.run();
+    }
+    long end = System.nanoTime();
+    long endBytes = allocatedBytes();
+    return new Measure(iterations, end - start, (startBytes == -1)? -1: Math.max(0, endBytes - startBytes - overhead));
+  }
+
+  /**
+   * Runs the warmup iterations then measures the iterations of the operation.
+   * The operation runs in its own thread, so the allocations of the thread
+   * are only the ones of the operation, and only one measure is done at a time.
+   */
+  static Measure measure(int warmupIterations, int iterations, Runnable operation) throws InterruptedException {
+    if (warmupIterations < 0) {
+      throw new IllegalArgumentException("warmupIterations should be positive or zero " + warmupIterations);
+    }
+    if (iterations <= 0) {
+      throw new IllegalArgumentException("iterations should be positive " + iterations);
+    }
+    FutureTask<Measure> task = new FutureTask<>(() -> measureInCurrentThread(warmupIterations, iterations, operation));
+    Thread thread = new Thread(task, "jayspec measure");
+    thread.setDaemon(true);
+    MEASURE_LOCK.lockInterruptibly();
+    try {
+      thread.start();
+      return task.get();
+    } catch (ExecutionException e) {
+      throw JdkSupport.rethrow(e.getCause());
+    } catch (InterruptedException e) {
+      task.cancel(true);
+      throw e;
+    } finally {
+      MEASURE_LOCK.unlock();
+    }
+  }
+}
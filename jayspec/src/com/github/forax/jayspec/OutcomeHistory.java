@@ -0,0 +1,202 @@
+package com.github.forax.jayspec;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import com.github.forax.jayspec.JaySpec.Example;
+import com.github.forax.jayspec.JaySpec.Listener;
+import com.github.forax.jayspec.JaySpec.ParameterExample;
+import com.github.forax.jayspec.JaySpec.Spec;
+
+/**
+ * Outcomes of the examples of the previous runs stored in a text file,
+ * one line by example: "passed" or "failed", the number of tests, the hash of the bytecode
+ * of the spec, the name of the declared class of the spec and the description
+ * of the example separated by tabs (and the occurrence of the description,
+ * see {@link TimingHistory}).
+ * 
+ * An example that has passed during the previous run is not run again
+ * if the bytecode of the declared class and the bytecode of the class defining
+ * the spec have not changed.
+ * The rows of a parameterized example are not stored, so they are always run.
+ * The examples that no longer exist or whose spec has changed are removed from the file
+ * when it's saved.
+ */
+class OutcomeHistory implements Listener {
+  private static class Outcome {
+    final boolean passed;
+    final int testCount;
+    final String specHash;
+    
+    Outcome(boolean passed, int testCount, String specHash) {
+      this.passed = passed;
+      this.testCount = testCount;
+      this.specHash = specHash;
+    }
+  }
+  
+  private final Path path;
+  private final ConcurrentHashMap<String, Outcome> outcomeMap;
+  private final HashMap<Spec, String> specHashMap = new HashMap<>();  // read only when the examples run
+  private final ConcurrentHashMap<Example, Outcome> runningMap = new ConcurrentHashMap<>();
+  
+  private OutcomeHistory(Path path, ConcurrentHashMap<String, Outcome> outcomeMap) {
+    this.path = path;
+    this.outcomeMap = outcomeMap;
+  }
+  
+  static OutcomeHistory load(Path path) throws IOException {
+    ConcurrentHashMap<String, Outcome> outcomeMap = new ConcurrentHashMap<>();
+    if (Files.exists(path)) {
+      for(String line: Files.readAllLines(path, StandardCharsets.UTF_8)) {
+        String[] parts = line.split("\t", 4);
+        if (parts.length != 4) {  // skip corrupted lines
+          continue;
+        }
+        try {
+          outcomeMap.put(parts[3], new Outcome(parts[0].equals("passed"), Integer.parseInt(parts[1]), parts[2]));
+        } catch(NumberFormatException e) {
+          // skip corrupted lines
+        }
+      }
+    }
+    return new OutcomeHistory(path, outcomeMap);
+  }
+  
+  /**
+   * Removes the examples that have passed during the previous run
+   * and whose spec has not changed, and report them as cached.
+   */
+  void removeCachedPasses(List<Example> examples, Listener listener) {
+    for(Iterator<Example> it = examples.iterator(); it.hasNext();) {
+      Example example = it.next();
+      String specHash = specHashMap.computeIfAbsent(example.getSpec(), OutcomeHistory::hash);
+      Outcome outcome = outcomeMap.get(TimingHistory.key(example));
+      if (outcome != null && outcome.passed && outcome.specHash.equals(specHash)) {
+        it.remove();
+        listener.exampleCached(example, outcome.testCount);
+      }
+    }
+  }
+  
+  /**
+   * Removes the outcomes of the examples that no longer exist and the outcomes recorded
+   * with another bytecode of their spec, the examples of the run and the examples of the specs
+   * (the names of the declared classes) still exist.
+   */
+  void retain(List<Example> examples, Set<String> specs) {
+    Predicate<String> existing = TimingHistory.existingKeys(examples, specs);
+    HashMap<String, String> specHashes = new HashMap<>();
+    for(Example example: examples) {
+      specHashes.put(TimingHistory.key(example), specHashMap.computeIfAbsent(example.getSpec(), OutcomeHistory::hash));
+    }
+    outcomeMap.entrySet().removeIf(entry -> {
+      String specHash = specHashes.get(entry.getKey());
+      return (specHash == null)? !existing.test(entry.getKey()): !specHash.equals(entry.getValue().specHash);
+    });
+  }
+  
+  private static String hash(Spec spec) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+    update(digest, spec.getDeclaredClass());
+    update(digest, definingClass(spec.getTestDefinition().getClass()));
+    StringBuilder builder = new StringBuilder();
+    for(byte b: digest.digest()) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+  
+  // the class of a lambda is generated at runtime, the code is in the class that creates the lambda
+  private static Class<?> definingClass(Class<?> type) {
+    String name = type.getName();
+    int index = name.indexOf("$$Lambda");
+    if (index == -1) {
+      return type;
+    }
+    try {
+      return Class.forName(name.substring(0, index), false, type.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return type;
+    }
+  }
+  
+  private static void update(MessageDigest digest, Class<?> type) {
+    digest.update(type.getName().getBytes(StandardCharsets.UTF_8));
+    if (type.isArray() || type.isPrimitive()) {
+      return;
+    }
+    try(InputStream input = type.getResourceAsStream('/' + type.getName().replace('.', '/') + ".class")) {
+      if (input == null) {
+        return;
+      }
+      byte[] buffer = new byte[8192];
+      int read;
+      while((read = input.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+  
+  @Override
+  public void exampleStarted(Example example) {
+    if (example instanceof ParameterExample) {
+      return;
+    }
+    // if the example doesn't finish, it will be run again next time
+    outcomeMap.remove(TimingHistory.key(example));
+    runningMap.put(example, new Outcome(true, 0, specHashMap.get(example.getSpec())));
+  }
+  
+  @Override
+  public void testFinished(Example example, String description, Throwable error, long duration) {
+    runningMap.computeIfPresent(example, (__, outcome) ->
+        new Outcome(outcome.passed && error == null, outcome.testCount + 1, outcome.specHash));
+  }
+  
+  @Override
+  public void exampleFinished(Example example, long duration) {
+    if (example instanceof ParameterExample) {
+      return;
+    }
+    Outcome outcome = runningMap.remove(example);
+    if (outcome != null && outcome.specHash != null) {
+      outcomeMap.put(TimingHistory.key(example), outcome);
+    }
+  }
+  
+  void save() throws IOException {
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try(BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      for(Map.Entry<String, Outcome> entry: new TreeMap<>(outcomeMap).entrySet()) {
+        Outcome outcome = entry.getValue();
+        writer.write((outcome.passed? "passed": "failed") + '\t' + outcome.testCount + '\t' + outcome.specHash + '\t' + entry.getKey());
+        writer.newLine();
+      }
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+  }
+}
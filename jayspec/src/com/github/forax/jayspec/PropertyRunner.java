@@ -0,0 +1,125 @@
+package com.github.forax.jayspec;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import com.github.forax.jayspec.JayAssertion.Checker;
+import com.github.forax.jayspec.JayAssertion.InvalidAssertionError;
+import com.github.forax.jayspec.JayAssertion.Property;
+
+/**
+ * Checks a property on generated values and shrinks the first counterexample,
+ * see {@link JayAssertion#forAll(Generator, Property)}.
+ *
+ * The values are generated and checked in parallel, each try has its own random
+ * derived from the seed and the index of the try, so the counterexample found
+ * (the one with the smallest index) doesn't depend on the number of threads.
+ */
+final class PropertyRunner {
+  private PropertyRunner() {
+    throw new AssertionError();
+  }
+
+  static final int DEFAULT_TRIES = 1_000;
+  static final long DEFAULT_SEED = Long.getLong("jayspec.seed", 0x2545F4914F6CDD1DL);
+
+  private static final int MAX_SIZE = 100;
+  private static final int MAX_SHRINK_STEPS = 1_000;
+
+  private static final StackTraceElement[] NO_FRAMES = new StackTraceElement[0];
+
+  // the checker used while searching a counterexample, a failure doesn't capture its stack trace
+  private static final Checker CHECKER = new Checker() {
+    @Override
+    public <E> void check(E actual, Predicate<? super E> predicate, Supplier<String> textSupplier) {
+      if (!predicate.test(actual)) {
+        throw new InvalidAssertionError("Invalid assertion, " + String.format(textSupplier.get(), actual), NO_FRAMES);
+      }
+    }
+  };
+
+  private static class Counterexample<T> {
+    final T value;
+    final Throwable error;
+
+    Counterexample(T value, Throwable error) {
+      this.value = value;
+      this.error = error;
+    }
+  }
+
+  // a murmur3 finalizer, so the randoms of two consecutive tries are not correlated
+  private static long seed(long seed, int index) {
+    long z = seed + index * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+    z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return z ^ (z >>> 33);
+  }
+
+  private static <T> Counterexample<T> check(Property<? super T> property, T value) {
+    try {
+      property.check(value, new JayAssertion(CHECKER));
+      return null;
+    } catch(Exception|AssertionError e) {
+      return new Counterexample<>(value, e);
+    }
+  }
+
+  // the size grows linearly from 1 to MAX_SIZE with the index of the try
+  private static int size(int index, int tries) {
+    return 1 + (int)((long)index * MAX_SIZE / tries);
+  }
+
+  static <T> void forAll(Checker checker, Generator<T> generator, int tries, long seed, Property<? super T> property) {
+    if (tries <= 0) {
+      throw new IllegalArgumentException("tries should be positive " + tries);
+    }
+    Counterexample<T> counterexample = IntStream.range(0, tries).parallel()
+        .mapToObj(i -> check(property, generator.generate(new SplittableRandom(seed(seed, i)), size(i, tries))))
+        .filter(Objects::nonNull)
+        .findFirst()
+        .orElse(null);
+    if (counterexample == null) {
+      return;
+    }
+    T original = counterexample.value;
+
+    // shrink the counterexample, the candidates of a step are checked in parallel
+    int steps = 0;
+    for(; steps < MAX_SHRINK_STEPS; steps++) {
+      List<T> candidates = generator.shrink(counterexample.value);
+      Counterexample<T> smaller = candidates.parallelStream()
+          .map(candidate -> check(property, candidate))
+          .filter(Objects::nonNull)
+          .findFirst()
+          .orElse(null);
+      if (smaller == null) {
+        break;
+      }
+      counterexample = smaller;
+    }
+
+    Throwable error = counterexample.error;
+    String reason = (error instanceof InvalidAssertionError)?
+        error.getMessage().substring("Invalid assertion, ".length()): error.toString();
+    int shrinkCount = steps;
+    // the text is a format with the counterexample as argument, so the other values are escaped
+    try {
+      checker.check(counterexample.value, __ -> false, () ->
+          "property falsified by %s (seed " + seed + ", shrunk " + shrinkCount + " time(s) from " +
+          String.valueOf(original).replace("%", "%%") + "): " + reason.replace("%", "%%"));
+    } catch(AssertionError e) {
+      // if the checker throws, the error of the failed check of the property is attached
+      if (e.getCause() == null) {
+        e.initCause(error);
+      } else {
+        e.addSuppressed(error);
+      }
+      throw e;
+    }
+  }
+}
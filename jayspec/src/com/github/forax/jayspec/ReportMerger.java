@@ -0,0 +1,190 @@
+package com.github.forax.jayspec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.stream.Stream;
+
+/**
+ * Merges the JSON Lines report files written by several shards (see {@link JsonLinesListener})
+ * and prints the failures and a summary of the whole run.
+ * <pre>
+ *   java com.github.forax.jayspec.ReportMerger shard-0.jsonl shard-1.jsonl ...
+ * </pre>
+ */
+public class ReportMerger {
+  private long reportCount;
+  private long failureCount;
+  private long skippedCount;
+  private long cachedCount;
+  
+  public void merge(Path path) throws IOException {
+    try(Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+      lines.filter(line -> !line.isEmpty()).forEach(line -> add(parse(line)));
+    } catch(UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+  
+  private void add(HashMap<String, String> report) {
+    switch(report.getOrDefault("status", "")) {
+    case "passed":
+      reportCount++;
+      break;
+    case "failed":
+      reportCount++;
+      failureCount++;
+      System.err.println("Spec of " + report.get("spec"));
+      System.err.println("  " + report.get("example") + " fails to verify: " + report.get("test"));
+      System.err.println(report.get("error"));
+      break;
+    case "skipped":
+      skippedCount++;
+      break;
+    case "cached":
+      cachedCount++;
+      break;
+    default:
+      throw new IllegalArgumentException("invalid report " + report);
+    }
+  }
+  
+  /**
+   * Returns the number of passed or failed tests of the merged files.
+   */
+  public long getReportCount() {
+    return reportCount;
+  }
+  public long getFailedCount() {
+    return failureCount;
+  }
+  public long getSkippedCount() {
+    return skippedCount;
+  }
+  public long getCachedCount() {
+    return cachedCount;
+  }
+  
+  public void printSummary() {
+    System.out.println("\nAmong " + reportCount + " report(s), " + failureCount  + " failed.");
+    if (skippedCount != 0) {
+      System.out.println("Run truncated after too many failures, " + skippedCount + " example(s) not run.");
+    }
+    if (cachedCount != 0) {
+      System.out.println("Skipped " + cachedCount + " unchanged example(s) that passed during the previous run.");
+    }
+  }
+  
+  // only parse the flat objects with string or number values written by JsonLinesListener
+  static HashMap<String, String> parse(String line) {
+    HashMap<String, String> map = new HashMap<>();
+    int[] index = { skipSpaces(line, 0) };
+    expect(line, index, '{');
+    if (line.charAt(skipSpaces(line, index[0])) == '}') {
+      return map;
+    }
+    for(;;) {
+      String key = string(line, index);
+      expect(line, index, ':');
+      map.put(key, value(line, index));
+      index[0] = skipSpaces(line, index[0]);
+      if (index[0] < line.length() && line.charAt(index[0]) == ',') {
+        index[0]++;
+        continue;
+      }
+      expect(line, index, '}');
+      return map;
+    }
+  }
+  
+  private static int skipSpaces(String line, int index) {
+    while(index < line.length() && Character.isWhitespace(line.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+  
+  private static void expect(String line, int[] index, char c) {
+    int i = skipSpaces(line, index[0]);
+    if (i >= line.length() || line.charAt(i) != c) {
+      throw new IllegalArgumentException("'" + c + "' expected at " + i + " in " + line);
+    }
+    index[0] = i + 1;
+  }
+  
+  // a string or a number (returned as a string)
+  private static String value(String line, int[] index) {
+    int start = skipSpaces(line, index[0]);
+    if (start < line.length() && line.charAt(start) == '"') {
+      return string(line, index);
+    }
+    int end = start;
+    while(end < line.length() && "+-.0123456789eE".indexOf(line.charAt(end)) != -1) {
+      end++;
+    }
+    if (end == start) {
+      throw new IllegalArgumentException("value expected at " + start + " in " + line);
+    }
+    index[0] = end;
+    return line.substring(start, end);
+  }
+  
+  private static String string(String line, int[] index) {
+    expect(line, index, '"');
+    StringBuilder builder = new StringBuilder();
+    for(int i = index[0]; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        index[0] = i + 1;
+        return builder.toString();
+      }
+      if (c != '\\') {
+        builder.append(c);
+        continue;
+      }
+      if (++i == line.length()) {  // a truncated line
+        break;
+      }
+      char escape = line.charAt(i);
+      switch(escape) {
+      case 'n':
+        builder.append('\n');
+        break;
+      case 'r':
+        builder.append('\r');
+        break;
+      case 't':
+        builder.append('\t');
+        break;
+      case 'b':
+        builder.append('\b');
+        break;
+      case 'f':
+        builder.append('\f');
+        break;
+      case 'u':
+        if (i + 5 > line.length()) {
+          throw new IllegalArgumentException("truncated unicode escape at " + i + " in " + line);
+        }
+        builder.append((char)Integer.parseInt(line.substring(i + 1, i + 5), 16));
+        i += 4;
+        break;
+      default:  // '"', '\\' and '/'
+        builder.append(escape);
+      }
+    }
+    throw new IllegalArgumentException("unterminated string in " + line);
+  }
+  
+  public static void main(String[] args) throws IOException {
+    ReportMerger merger = new ReportMerger();
+    for(String arg: args) {
+      merger.merge(Paths.get(arg));
+    }
+    merger.printSummary();
+  }
+}
@@ -0,0 +1,162 @@
+package com.github.forax.jayspec;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Captures the location of a failure, i.e. the frames of the user code
+ * between the failing assertion and the runner method that calls the test
+ * or the property runner that calls a property in a worker thread.
+ *
+ * On a JDK 9+, the stack is walked lazily with a StackWalker (looked up at runtime)
+ * so only the frames that are kept are materialized, on a JDK 8
+ * the stack trace of a Throwable is used instead.
+ */
+final class StackCapture {
+  private StackCapture() {
+    throw new AssertionError();
+  }
+
+  private static final String JAY_SPEC = JaySpec.class.getName();
+  private static final String PROPERTY_RUNNER = PropertyRunner.class.getName();
+
+  // the classes of the library that can be on the stack between an assertion and the user code,
+  // the user code can be in the same package (the tests of JaySpec are)
+  private static final String[] LIBRARY_CLASSES = Stream.of(
+      JayAssertion.class, JaySpec.class, StackCapture.class, PropertyRunner.class, Generator.class,
+      ArrayMismatch.class, Measure.class, ContextScope.class, JdkSupport.class)
+      .map(Class::getName)
+      .toArray(String[]::new);
+
+  private static final Class<?> STACK_FRAME_CLASS = JdkSupport.findClass("java.lang.StackWalker$StackFrame");
+  private static final Object STACK_WALKER = stackWalker();
+  private static final MethodHandle WALK = lookupMethod(JdkSupport.findClass("java.lang.StackWalker"), "walk",
+      MethodType.methodType(Object.class, Function.class), MethodType.methodType(Object.class, Object.class, Function.class));
+  private static final MethodHandle CLASS_NAME = lookupMethod(STACK_FRAME_CLASS, "getClassName",
+      MethodType.methodType(String.class), MethodType.methodType(String.class, Object.class));
+  private static final MethodHandle METHOD_NAME = lookupMethod(STACK_FRAME_CLASS, "getMethodName",
+      MethodType.methodType(String.class), MethodType.methodType(String.class, Object.class));
+  private static final MethodHandle TO_STACK_TRACE_ELEMENT = lookupMethod(STACK_FRAME_CLASS, "toStackTraceElement",
+      MethodType.methodType(StackTraceElement.class), MethodType.methodType(StackTraceElement.class, Object.class));
+
+  // null on a JDK 8
+  private static Object stackWalker() {
+    Class<?> walkerClass = JdkSupport.findClass("java.lang.StackWalker");
+    if (walkerClass == null) {
+      return null;
+    }
+    try {
+      return JdkSupport.findStatic(walkerClass, "getInstance", MethodType.methodType(walkerClass)).invoke();
+    } catch (Throwable t) {
+      throw JdkSupport.rethrow(t);
+    }
+  }
+
+  // null on a JDK 8
+  private static MethodHandle lookupMethod(Class<?> owner, String name, MethodType type, MethodType invokedType) {
+    return (owner == null)? null: JdkSupport.findVirtual(owner, name, type, invokedType);
+  }
+
+  // the frames of the library (the assertions, the property runner, the checker of the runner, etc)
+  // at the top of the stack, a library class or one of its inner classes (or lambdas)
+  private static boolean isLibraryFrame(String className) {
+    for(String libraryClass: LIBRARY_CLASSES) {
+      if (className.startsWith(libraryClass) &&
+          (className.length() == libraryClass.length() || className.charAt(libraryClass.length()) == '$')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // the frame of the runner that calls the test, see JaySpec.verify()
+  static boolean isRunnerFrame(String className, String methodName) {
+    return className.equals(JAY_SPEC) && methodName.startsWith("verify");
+  }
+
+  // the frames of the property runner below the user code, a property checked in a worker thread
+  // of forAll() has no runner frame
+  private static boolean isWorkerFrame(String className) {
+    return className.equals(PROPERTY_RUNNER) || className.startsWith(PROPERTY_RUNNER + '$');
+  }
+
+  /**
+   * Returns the frames of the user code that calls the current assertion,
+   * at most {@code maxFrames} frames are returned, 0 means no limit.
+   */
+  static StackTraceElement[] userFrames(int maxFrames) {
+    if (STACK_WALKER == null || WALK == null || CLASS_NAME == null || METHOD_NAME == null || TO_STACK_TRACE_ELEMENT == null) {
+      return userFrames(new Throwable().getStackTrace(), maxFrames);
+    }
+    Function<Stream<?>, StackTraceElement[]> walker = frames -> userFrames(frames.iterator(), maxFrames);
+    try {
+      return (StackTraceElement[])(Object)WALK.invokeExact(STACK_WALKER, walker);
+    } catch (Throwable t) {
+      throw JdkSupport.rethrow(t);
+    }
+  }
+
+  private static StackTraceElement[] userFrames(Iterator<?> frames, int maxFrames) {
+    ArrayList<StackTraceElement> elements = new ArrayList<>();
+    boolean top = true;
+    try {
+      while(frames.hasNext()) {
+        Object frame = frames.next();
+        String className = (String)CLASS_NAME.invokeExact(frame);
+        if (isRunnerFrame(className, (String)METHOD_NAME.invokeExact(frame))) {
+          break;
+        }
+        if (top) {
+          if (isLibraryFrame(className)) {
+            continue;
+          }
+          top = false;
+        } else if (isWorkerFrame(className)) {
+          break;
+        }
+        elements.add((StackTraceElement)TO_STACK_TRACE_ELEMENT.invokeExact(frame));
+        if (elements.size() == maxFrames) {
+          break;
+        }
+      }
+    } catch (Throwable t) {
+      throw JdkSupport.rethrow(t);
+    }
+    return elements.toArray(new StackTraceElement[0]);
+  }
+
+  private static StackTraceElement[] userFrames(StackTraceElement[] stackTrace, int maxFrames) {
+    int start = 0;
+    while(start < stackTrace.length &&
+          !isRunnerFrame(stackTrace[start].getClassName(), stackTrace[start].getMethodName()) &&
+          isLibraryFrame(stackTrace[start].getClassName())) {
+      start++;
+    }
+    int end = start;
+    while(end < stackTrace.length && (maxFrames == 0 || end - start < maxFrames) &&
+          !isRunnerFrame(stackTrace[end].getClassName(), stackTrace[end].getMethodName()) &&
+          !(end > start && isWorkerFrame(stackTrace[end].getClassName()))) {
+      end++;
+    }
+    return Arrays.copyOfRange(stackTrace, start, end);
+  }
+
+  /**
+   * Removes the frames of the runner from the stack trace of an exception thrown by a test,
+   * the stack trace is not changed if it doesn't contain a runner frame.
+   */
+  static void trimRunnerFrames(Throwable throwable) {
+    StackTraceElement[] stackTrace = throwable.getStackTrace();
+    for(int i = 0; i < stackTrace.length; i++) {
+      if (isRunnerFrame(stackTrace[i].getClassName(), stackTrace[i].getMethodName())) {
+        throwable.setStackTrace(Arrays.copyOf(stackTrace, i));
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.github.forax.jayspec;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import com.github.forax.jayspec.JaySpec.Example;
+import com.github.forax.jayspec.JaySpec.Listener;
+import com.github.forax.jayspec.JaySpec.ParameterExample;
+
+/**
+ * Durations of the examples of the previous runs stored in a text file,
+ * one line by example: the duration in nanoseconds, the name of the declared class
+ * of the spec and the description of the example separated by tabs, if several examples
+ * of a declared class have the same description, the second one and the next ones
+ * are followed by a tab and their occurrence.
+ * The rows of a parameterized example are not stored, only their total duration
+ * is stored as the duration of the parameterized example.
+ * The examples that no longer exist are removed from the file when it's saved.
+ */
+class TimingHistory implements Listener {
+  private final Path path;
+  private final ConcurrentHashMap<String, Long> durationMap;
+  private final ConcurrentHashMap<Example, LongAdder> parameterizedMap = new ConcurrentHashMap<>();
+  
+  private TimingHistory(Path path, ConcurrentHashMap<String, Long> durationMap) {
+    this.path = path;
+    this.durationMap = durationMap;
+  }
+  
+  static TimingHistory load(Path path) throws IOException {
+    ConcurrentHashMap<String, Long> durationMap = new ConcurrentHashMap<>();
+    if (Files.exists(path)) {
+      for(String line: Files.readAllLines(path, StandardCharsets.UTF_8)) {
+        int tab = line.indexOf('\t');
+        if (tab == -1) {  // skip corrupted lines
+          continue;
+        }
+        try {
+          durationMap.put(line.substring(tab + 1), Long.parseLong(line.substring(0, tab)));
+        } catch(NumberFormatException e) {
+          // skip corrupted lines
+        }
+      }
+    }
+    return new TimingHistory(path, durationMap);
+  }
+  
+  // also used by OutcomeHistory, the examples of a declared class with the same description
+  // have different keys, the occurrence is appended to the description after the first one
+  static String key(Example example) {
+    String key = specPrefix(example.getSpec().getDeclaredClass().getName()) + escape(example.getDescription());
+    return (example.occurrence == 0)? key: key + '\t' + example.occurrence;
+  }
+  private static String specPrefix(String declaredClassName) {
+    return escape(declaredClassName) + '\t';
+  }
+  
+  // true for the keys of the examples and for all the keys of the specs, also used by OutcomeHistory
+  static Predicate<String> existingKeys(List<Example> examples, Set<String> specs) {
+    HashSet<String> keys = new HashSet<>();
+    for(Example example: examples) {
+      keys.add(key(example));
+    }
+    HashSet<String> prefixes = new HashSet<>();
+    for(String spec: specs) {
+      prefixes.add(specPrefix(spec));
+    }
+    return key -> keys.contains(key) || prefixes.contains(key.substring(0, key.indexOf('\t') + 1));
+  }
+  
+  private static String escape(String text) {
+    return text.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+  }
+  
+  /**
+   * Sorts the examples, the ones with no history first (in declaration order)
+   * then the others from the slowest to the fastest.
+   */
+  void sortLongestFirst(List<Example> examples) {
+    // compute the keys once, the sort is stable so examples with the same duration keep their order
+    IdentityHashMap<Example, Long> durations = new IdentityHashMap<>();
+    for(Example example: examples) {
+      durations.put(example, durationMap.getOrDefault(key(example), Long.MAX_VALUE));
+    }
+    examples.sort(Comparator.comparing((Example example) -> durations.get(example)).reversed());
+  }
+  
+  /**
+   * Removes the durations of the examples that no longer exist, the examples of the run
+   * and the examples of the specs (the names of the declared classes) still exist.
+   */
+  void retain(List<Example> examples, Set<String> specs) {
+    durationMap.keySet().removeIf(existingKeys(examples, specs).negate());
+  }
+  
+  @Override
+  public void testFinished(Example example, String description, Throwable error, long duration) {
+    // empty
+  }
+  
+  @Override
+  public void exampleFinished(Example example, long duration) {
+    if (example instanceof ParameterExample) {
+      parameterizedMap.computeIfAbsent(((ParameterExample<?>)example).template, __ -> new LongAdder()).add(duration);
+      return;
+    }
+    durationMap.put(key(example), duration);
+  }
+  
+  void save() throws IOException {
+    parameterizedMap.forEach((example, duration) -> durationMap.put(key(example), duration.sum()));
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try(BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      for(Map.Entry<String, Long> entry: new TreeMap<>(durationMap).entrySet()) {
+        writer.write(entry.getValue() + "\t" + entry.getKey());
+        writer.newLine();
+      }
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+  }
+}
@@ -0,0 +1,52 @@
+package com.github.forax.jayspec;
+
+import java.util.List;
+
+import com.github.forax.jayspec.JaySpec.Report;
+
+/**
+ * Runs the tests of JaySpec, themselves written with JaySpec,
+ * and exits with the status 1 if a test fails.
+ */
+public class AllTests {
+  public static void main(String[] args) {
+    JaySpec[] tests = {
+        new GivenConcurrentTest(),
+        new FailureBudgetTest(),
+        new FilterTest(),
+        new SoftAssertionTest(),
+        new TimingHistoryTest(),
+        new OutcomeHistoryTest(),
+        new JayAssertionTest(),
+        new ParameterizedExampleTest(),
+        new MeasureTest(),
+        new JsonLinesListenerTest(),
+        new JUnitXmlListenerTest(),
+        new CompactReportTest(),
+        new ReportMergerTest(),
+        new BehaviorTest(),
+        new StackCaptureTest(),
+        new PropertyRunnerTest(),
+        new FixtureTest(),
+        new TimeoutTest()
+    };
+    long testCount = 0;
+    long failedCount = 0;
+    for(JaySpec test: tests) {
+      List<Report> reports = test.runTest(Report::new);
+      for(Report report: reports) {
+        Throwable error = report.getError();
+        if (error != null) {
+          failedCount++;
+          System.err.println(report.getExample() + " should " + report.getDescription());
+          error.printStackTrace();
+        }
+      }
+      testCount += reports.size();
+    }
+    System.out.println("Among " + testCount + " test(s), " + failedCount + " failed.");
+    if (failedCount != 0) {
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package com.github.forax.jayspec;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.forax.jayspec.JaySpec.Report;
+
+public class BehaviorTest extends JaySpec {
+  // calls should() from the thread of an executor and waits for it
+  static void shouldFromExecutor(Behavior behavior, String description, AssertionConsumer consumer)
+      throws InterruptedException, ExecutionException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> behavior.should(description, consumer)).get();
+    } finally {
+      executor.shutdown();
+    }
+  }
+  
+  // a spec of two examples that run at the same time, each one calls should() from an executor,
+  // either with the behavior of describe() or with the behavior passed to the example
+  static JaySpec twoExamples(boolean passed, ConcurrentLinkedQueue<Throwable> errors) {
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    JaySpec spec = new JaySpec() {{
+      describe(Integer.class, it -> {
+        for(int i = 0; i < 2; i++) {
+          int value = i;
+          given("the value " + value, behavior -> {
+            try {
+              barrier.await(10, TimeUnit.SECONDS);  // both examples are running
+              shouldFromExecutor(passed? behavior: it, "be " + value, verify -> verify.that(value).isEqualTo(value));
+            } catch(ExecutionException e) {
+              errors.add(e.getCause());
+            } catch(Exception e) {
+              errors.add(e);
+            }
+          });
+        }
+      });
+    }};
+    spec.setExecutionStrategy(ExecutionStrategy.virtualThreads(2));
+    return spec;
+  }
+  
+  public BehaviorTest() {
+    describe(Behavior.class, it -> {
+      given("two examples of a spec running at the same time", () -> {
+        it.should("add each test to the example that passed the behavior", verify -> {
+          ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+          List<Report> reports = twoExamples(true, errors).runTest(Report::new);
+          verify.that(errors).isEmpty();
+          verify.that(reports).size().isEqualTo(2);
+          for(Report report: reports) {
+            verify.that(report.getError()).isNull();
+            verify.that(report.getExample().getDescription())
+                .isEqualTo("the value " + report.getDescription().substring("be ".length()));
+          }
+        });
+        
+        it.should("reject the behavior of describe() used by another thread", verify -> {
+          ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+          List<Report> reports = twoExamples(false, errors).runTest(Report::new);
+          verify.that(reports).isEmpty();
+          verify.that(errors).size().isEqualTo(2);
+          for(Throwable error: errors) {
+            verify.that(error instanceof IllegalStateException).isTrue();
+          }
+        });
+      });
+      
+      given("a behavior used by an example with a timeout", () -> {
+        it.should("add the test to the example", verify -> {
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, Duration.ofSeconds(10), it -> {
+              given("an executor", behavior -> {
+                try {
+                  shouldFromExecutor(behavior, "be one", verify -> verify.that(1).isEqualTo(1));
+                } catch(Exception e) {
+                  throw new AssertionError(e);
+                }
+              });
+            });
+          }};
+          
+          CompactReport report = spec.runCompact();
+          verify.that(report.getPassedCount()).isEqualTo(1L);
+        });
+      });
+      
+      given("a behavior kept after the end of the example", () -> {
+        it.should("reject the test", verify -> {
+          AtomicReference<Behavior> kept = new AtomicReference<>();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("a kept behavior", kept::set);
+            });
+          }};
+          spec.runCompact();
+          
+          IllegalStateException exception = null;
+          try {
+            kept.get().should("be too late", __ -> { /* empty */ });
+          } catch(IllegalStateException e) {
+            exception = e;
+          }
+          verify.that(exception).isNotNull();
+        });
+      });
+      
+      given("several examples running in parallel", () -> {
+        it.should("add each test to the example of its thread", verify -> {
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              for(int i = 0; i < 100; i++) {
+                int value = i;
+                given("the value " + value, () -> {
+                  it.should("be " + value, verify -> verify.that(value).isEqualTo(value));
+                });
+              }
+            });
+          }};
+          
+          CompactReport report = spec.runCompact();
+          verify.that(report.getPassedCount()).isEqualTo(100L);
+          verify.that(report.getFailedCount()).isEqualTo(0L);
+        });
+      });
+      
+      given("a behavior used outside of an example", () -> {
+        it.should("reject the test", verify -> {
+          IllegalStateException exception = null;
+          try {
+            new JaySpec() {{
+              describe(Integer.class, it -> {
+                it.should("be defined in a given", verify -> { /* empty */ });
+              });
+            }}.runCompact();
+          } catch(IllegalStateException e) {
+            exception = e;
+          }
+          verify.that(exception).isNotNull();
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new BehaviorTest().run();
+  }
+}
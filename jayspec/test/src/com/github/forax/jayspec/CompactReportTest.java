@@ -0,0 +1,85 @@
+package com.github.forax.jayspec;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.github.forax.jayspec.JaySpec.Example;
+import com.github.forax.jayspec.JaySpec.Report;
+import com.github.forax.jayspec.JaySpec.Spec;
+
+public class CompactReportTest extends JaySpec {
+  public CompactReportTest() {
+    describe(CompactReport.class, it -> {
+      Spec strings = new Spec(String.class, __ -> { /* empty */ });
+      Spec integers = new Spec(Integer.class, __ -> { /* empty */ });
+      Example string = new Example(strings, "a string", () -> { /* empty */ });
+      Example integer = new Example(integers, "an integer", () -> { /* empty */ });
+      
+      given("a report of passed, failed, skipped and cached examples", () -> {
+        it.should("count the tests by outcome", verify -> {
+          CompactReport report = new CompactReport();
+          report.testFinished(string, "be empty", null, 10);
+          report.testFinished(string, "be trimmed", null, 20);
+          report.testFinished(integer, "be positive", new AssertionError("-1 > 0"), 30);
+          report.exampleSkipped(integer);
+          report.exampleCached(string, 2);
+          
+          verify.that(report.getPassedCount()).isEqualTo(2L);
+          verify.that(report.getFailedCount()).isEqualTo(1L);
+          verify.that(report.getTestCount()).isEqualTo(3L);
+          verify.that(report.getSkippedCount()).isEqualTo(1L);
+          verify.that(report.getCachedCount()).isEqualTo(1L);
+          verify.that(report.getPassedCount(strings)).isEqualTo(2L);
+          verify.that(report.getPassedCount(integers)).isEqualTo(0L);
+        });
+        
+        it.should("only keep the failures", verify -> {
+          CompactReport report = new CompactReport();
+          AssertionError error = new AssertionError("-1 > 0");
+          report.testFinished(string, "be empty", null, 10);
+          report.testFinished(integer, "be positive", error, 30);
+          
+          List<Report> failures = report.getFailures();
+          verify.that(failures).size().isEqualTo(1);
+          verify.that(failures.get(0).getExample()).isSameAs(integer);
+          verify.that(failures.get(0).getDescription()).isEqualTo("be positive");
+          verify.that(failures.get(0).getError()).isSameAs(error);
+        });
+        
+        it.should("record the durations of all the tests", verify -> {
+          CompactReport report = new CompactReport();
+          for(int i = 0; i < 1_000; i++) {
+            report.testFinished(string, "be empty", (i % 10 == 0)? new AssertionError(): null, i);
+          }
+          long[] durations = report.getDurations();
+          verify.that(durations.length).isEqualTo(1_000);
+          verify.that(Arrays.stream(durations).sum()).isEqualTo(499_500L);
+        });
+        
+        it.should("not record the durations if asked", verify -> {
+          CompactReport report = new CompactReport(false);
+          report.testFinished(string, "be empty", null, 10);
+          verify.that(report.getDurations().length).isEqualTo(0);
+          verify.that(report.getPassedCount()).isEqualTo(1L);
+        });
+      });
+      
+      given("a report filled by several threads", () -> {
+        it.should("not lose a test", verify -> {
+          CompactReport report = new CompactReport();
+          IntStream.range(0, 10_000).parallel().forEach(i -> {
+            report.testFinished(string, "be empty", (i % 100 == 0)? new AssertionError(): null, 1);
+          });
+          verify.that(report.getTestCount()).isEqualTo(10_000L);
+          verify.that(report.getFailedCount()).isEqualTo(100L);
+          verify.that(report.getDurations().length).isEqualTo(10_000);
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new CompactReportTest().run();
+  }
+}
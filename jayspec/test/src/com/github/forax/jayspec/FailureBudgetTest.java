@@ -0,0 +1,63 @@
+package com.github.forax.jayspec;
+
+import java.util.List;
+
+import com.github.forax.jayspec.JaySpec.Report;
+
+public class FailureBudgetTest extends JaySpec {
+  // a spec of 10 examples that all fail, run one after the other
+  static JaySpec failing() {
+    JaySpec spec = new JaySpec() {{
+      describe(Integer.class, it -> {
+        for(int i = 0; i < 10; i++) {
+          int value = i;
+          given("the value " + value, () -> {
+            it.should("be negative", verify -> verify.that(value < 0).isTrue());
+          });
+        }
+      });
+    }};
+    spec.setExecutionStrategy(ExecutionStrategy.sequential());
+    return spec;
+  }
+  
+  public FailureBudgetTest() {
+    describe(JaySpec.class, it -> {
+      given("examples that all fail", () -> {
+        it.should("run all the examples by default", verify -> {
+          List<Report> reports = failing().runTest(Report::new);
+          verify.that(reports.size()).isEqualTo(10);
+        });
+        
+        it.should("stop after the first failure in fail fast mode", verify -> {
+          JaySpec spec = failing();
+          spec.setFailFast(true);
+          List<Report> reports = spec.runTest(Report::new);
+          verify.that(reports.size()).isEqualTo(1);
+          verify.that(reports.get(0).getError() != null).isTrue();
+        });
+        
+        it.should("stop after the maximum number of failures", verify -> {
+          JaySpec spec = failing();
+          spec.setMaxFailures(3);
+          List<Report> reports = spec.runTest(Report::new);
+          verify.that(reports.size()).isEqualTo(3);
+        });
+        
+        it.should("reject a negative maximum number of failures", verify -> {
+          IllegalArgumentException exception = null;
+          try {
+            failing().setMaxFailures(-1);
+          } catch(IllegalArgumentException e) {
+            exception = e;
+          }
+          verify.that(exception != null).isTrue();
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new FailureBudgetTest().run();
+  }
+}
@@ -0,0 +1,113 @@
+package com.github.forax.jayspec;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.github.forax.jayspec.JaySpec.Report;
+
+public class FilterTest extends JaySpec {
+  // two specs, one example of each is tagged "slow"
+  static JaySpec tagged() {
+    return new JaySpec() {{
+      describe(Integer.class, it -> {
+        given("a small integer", () -> {
+          it.should("be small", verify -> verify.that(1 < 10).isTrue());
+        });
+        tagged("slow").given("a big integer", () -> {
+          it.should("be big", verify -> verify.that(1_000_000 > 10).isTrue());
+        });
+      });
+      describe(String.class, it -> {
+        given("an empty string", () -> {
+          it.should("be empty", verify -> verify.that("".isEmpty()).isTrue());
+        });
+        tagged("slow").given("a long string", () -> {
+          it.should("be long", verify -> verify.that("a long string".length() > 10).isTrue());
+        });
+      });
+    }};
+  }
+  
+  // the descriptions of the examples of the reports, sorted
+  static List<String> examples(List<Report> reports) {
+    return reports.stream().map(report -> report.getExample().getDescription()).sorted().collect(Collectors.toList());
+  }
+  
+  public FilterTest() {
+    describe(Filter.class, it -> {
+      given("two specs with tagged examples", () -> {
+        it.should("run all the examples by default", verify -> {
+          verify.that(tagged().runTest(Report::new).size()).isEqualTo(4);
+        });
+        
+        it.should("only run the tagged examples", verify -> {
+          JaySpec spec = tagged();
+          spec.setFilter(Filter.tags("slow"));
+          verify.that(examples(spec.runTest(Report::new)).toString()).isEqualTo("[a big integer, a long string]");
+        });
+        
+        it.should("only run the spec of a class", verify -> {
+          JaySpec spec = tagged();
+          spec.setFilter(Filter.declaredClass(String.class));
+          verify.that(examples(spec.runTest(Report::new)).toString()).isEqualTo("[a long string, an empty string]");
+        });
+        
+        it.should("only run the examples matching a regex", verify -> {
+          JaySpec spec = tagged();
+          spec.setFilter(Filter.description("integer"));
+          verify.that(examples(spec.runTest(Report::new)).toString()).isEqualTo("[a big integer, a small integer]");
+        });
+        
+        it.should("combine the filters", verify -> {
+          JaySpec spec = tagged();
+          spec.setFilter(Filter.tags("slow").and(Filter.declaredClass(Integer.class)));
+          verify.that(examples(spec.runTest(Report::new)).toString()).isEqualTo("[a big integer]");
+        });
+      });
+      
+      given("a tagged spec", () -> {
+        it.should("let its examples inherit the tag", verify -> {
+          JaySpec spec = new JaySpec() {{
+            tagged("slow").describe(Integer.class, it -> {
+              given("an integer", () -> {
+                it.should("be an integer", verify -> verify.that(1).isEqualTo(1));
+              });
+            });
+            describe(String.class, it -> {
+              given("a string", () -> {
+                it.should("be a string", verify -> verify.that("").isEqualTo(""));
+              });
+            });
+          }};
+          spec.setFilter(Filter.tags("slow"));
+          verify.that(examples(spec.runTest(Report::new)).toString()).isEqualTo("[an integer]");
+        });
+      });
+      
+      given("the system properties jayspec.shard and jayspec.soft", () -> {
+        it.should("only apply to the run, not to the configuration of the spec", verify -> {
+          JaySpec spec = tagged();
+          Filter filter = Filter.tags("slow");
+          spec.setFilter(filter);
+          System.setProperty("jayspec.shard", "0/2");
+          System.setProperty("jayspec.soft", "true");
+          System.setProperty("jayspec.console", "false");
+          try {
+            spec.run();
+            spec.run();
+          } finally {
+            System.clearProperty("jayspec.shard");
+            System.clearProperty("jayspec.soft");
+            System.clearProperty("jayspec.console");
+          }
+          verify.that(spec.getFilter()).isSameAs(filter);
+          verify.that(spec.isSoftAssertions()).isFalse();
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new FilterTest().run();
+  }
+}
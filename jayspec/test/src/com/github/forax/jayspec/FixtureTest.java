@@ -0,0 +1,162 @@
+package com.github.forax.jayspec;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.forax.jayspec.JaySpec.Listener;
+
+public class FixtureTest extends JaySpec {
+  // a value of a fixture that records if it has been closed
+  static class Resource implements AutoCloseable {
+    volatile boolean closed;
+    
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+  
+  static final Listener NO_LISTENER = new Listener() {
+    @Override
+    public void testFinished(Example example, String description, Throwable error, long duration) {
+      // empty
+    }
+  };
+  
+  // waits until the resource is closed, at most 5 seconds
+  static boolean awaitClosed(Resource resource) throws InterruptedException {
+    long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while(!resource.closed && System.nanoTime() < end) {
+      Thread.sleep(10);
+    }
+    return resource.closed;
+  }
+  
+  public FixtureTest() {
+    describe(Fixture.class, it -> {
+      given("a fixture of a spec", () -> {
+        it.should("be closed when the last example of the spec has finished", verify -> {
+          Resource resource = new Resource();
+          AtomicBoolean closedBeforeNextSpec = new AtomicBoolean();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              Fixture<Resource> fixture = fixture("a resource", () -> resource);
+              given("the value 1", () -> {
+                it.should("use the resource", verify -> verify.that(fixture.get().closed).isFalse());
+              });
+            });
+            describe(String.class, it -> {
+              given("the value \"1\"", () -> {
+                it.should("run after the spec with the fixture", verify -> closedBeforeNextSpec.set(resource.closed));
+              });
+            });
+          }};
+          spec.setExecutionStrategy(ExecutionStrategy.sequential());
+          spec.run(NO_LISTENER);
+          verify.that(closedBeforeNextSpec.get()).isTrue();
+        });
+        
+        it.should("not be closed while the thread of a timed out example may use it", verify -> {
+          Resource resource = new Resource();
+          CountDownLatch latch = new CountDownLatch(1);
+          AtomicBoolean closedBeforeNextSpec = new AtomicBoolean();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              Fixture<Resource> fixture = fixture("a resource", () -> resource);
+              given("an example that times out", Duration.ofMillis(50), () -> {
+                fixture.get();
+                // the example ignores the interruption
+                boolean released = false;
+                while(!released) {
+                  try {
+                    latch.await();
+                    released = true;
+                  } catch(InterruptedException e) {
+                    // try again
+                  }
+                }
+                it.should("use the resource", verify -> verify.that(fixture.get().closed).isFalse());
+              });
+            });
+            describe(String.class, it -> {
+              given("the value \"1\"", () -> {
+                it.should("run after the spec with the fixture", verify -> closedBeforeNextSpec.set(resource.closed));
+              });
+            });
+          }};
+          spec.setExecutionStrategy(ExecutionStrategy.sequential());
+          spec.run(NO_LISTENER);
+          verify.that(closedBeforeNextSpec.get()).isFalse();
+          verify.that(resource.closed).isFalse();
+          latch.countDown();
+          verify.that(awaitClosed(resource)).isTrue();
+        });
+        
+        it.should("throw the error of close() from run()", verify -> {
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              Fixture<AutoCloseable> fixture = fixture("a failing resource", () -> () -> {
+                throw new Exception("close failed");
+              });
+              given("the value 1", () -> {
+                it.should("use the resource", verify -> verify.that(fixture.get()).isNotNull());
+              });
+            });
+          }};
+          IllegalStateException exception = null;
+          try {
+            spec.run(NO_LISTENER);
+          } catch(IllegalStateException e) {
+            exception = e;
+          }
+          verify.that(exception).isNotNull();
+          verify.that(exception.getMessage()).isEqualTo("fail to close 1 fixture(s)");
+          verify.that(exception.getCause().getMessage()).isEqualTo("close failed");
+        });
+      });
+      
+      given("a shared fixture", () -> {
+        it.should("be created once and closed at the end of the run", verify -> {
+          Resource resource = new Resource();
+          AtomicInteger creations = new AtomicInteger();
+          AtomicBoolean closedInLastSpec = new AtomicBoolean();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              Fixture<Resource> fixture = sharedFixture("a resource", () -> {
+                creations.incrementAndGet();
+                return resource;
+              });
+              given("the value 1", () -> {
+                it.should("use the resource", verify -> verify.that(fixture.get()).isSameAs(resource));
+              });
+            });
+            describe(String.class, it -> {
+              Fixture<Resource> fixture = sharedFixture("a resource", () -> {
+                creations.incrementAndGet();
+                return new Resource();
+              });
+              given("the value \"1\"", () -> {
+                it.should("use the same resource", verify -> {
+                  closedInLastSpec.set(fixture.get().closed);
+                  verify.that(fixture.get()).isSameAs(resource);
+                });
+              });
+            });
+          }};
+          spec.setExecutionStrategy(ExecutionStrategy.sequential());
+          spec.run(NO_LISTENER);
+          verify.that(creations.get()).isEqualTo(1);
+          verify.that(closedInLastSpec.get()).isFalse();
+          verify.that(resource.closed).isTrue();
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new FixtureTest().run();
+  }
+}
@@ -0,0 +1,75 @@
+package com.github.forax.jayspec;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.forax.jayspec.JaySpec.Report;
+
+public class GivenConcurrentTest extends JaySpec {
+  // the number of reports with an error
+  static long failedCount(List<Report> reports) {
+    return reports.stream().filter(report -> report.getError() != null).count();
+  }
+  
+  public GivenConcurrentTest() {
+    describe(JaySpec.class, it -> {
+      given("a concurrent example with 100 tests", () -> {
+        it.should("report each test", verify -> {
+          AtomicInteger definitions = new AtomicInteger();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              givenConcurrent("the values from 0 to 99", () -> {
+                definitions.incrementAndGet();
+                for(int i = 0; i < 100; i++) {
+                  int value = i;
+                  it.should("accept " + value, verify -> verify.that(value < 100).isTrue());
+                }
+              });
+            });
+          }};
+          
+          List<Report> reports = spec.runTest(Report::new);
+          verify.that(reports.size()).isEqualTo(100);
+          verify.that(failedCount(reports)).isEqualTo(0L);
+          verify.that(definitions.get()).isEqualTo(1);
+        });
+        
+        it.should("not stop the other tests when a test fails", verify -> {
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              givenConcurrent("the values from 0 to 99", () -> {
+                for(int i = 0; i < 100; i++) {
+                  int value = i;
+                  it.should("be even " + value, verify -> verify.that(value % 2).isEqualTo(0));
+                }
+              });
+            });
+          }};
+          
+          List<Report> reports = spec.runTest(Report::new);
+          verify.that(reports.size()).isEqualTo(100);
+          verify.that(failedCount(reports)).isEqualTo(50L);
+        });
+        
+        it.should("see the state created by the example", verify -> {
+          JaySpec spec = new JaySpec() {{
+            describe(StringBuilder.class, it -> {
+              givenConcurrent("a builder", () -> {
+                StringBuilder builder = new StringBuilder("hello");
+                for(int i = 0; i < 10; i++) {
+                  it.should("read hello", verify -> verify.that(builder.toString()).isEqualTo("hello"));
+                }
+              });
+            });
+          }};
+          
+          verify.that(failedCount(spec.runTest(Report::new))).isEqualTo(0L);
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new GivenConcurrentTest().run();
+  }
+}
@@ -0,0 +1,99 @@
+package com.github.forax.jayspec;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class JUnitXmlListenerTest extends JaySpec {
+  // the number of occurrences of the text
+  static long count(String xml, String text) {
+    long count = 0;
+    for(int index = xml.indexOf(text); index != -1; index = xml.indexOf(text, index + text.length())) {
+      count++;
+    }
+    return count;
+  }
+  
+  // the value of a counter of the testsuite
+  static long counter(String xml, String name) {
+    Matcher matcher = Pattern.compile(name + "=\"(\\d+)\"").matcher(xml);
+    if (!matcher.find()) {
+      throw new AssertionError("no counter " + name);
+    }
+    return Long.parseLong(matcher.group(1));
+  }
+  
+  public JUnitXmlListenerTest() {
+    describe(JUnitXmlListener.class, it -> {
+      given("a run with a failed test", () -> {
+        it.should("have counters that match the testcases", verify -> {
+          Path path = TimingHistoryTest.tempFile();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("one", () -> {
+                it.should("be positive", verify -> verify.that(1).isGreaterThan(0));
+                it.should("be negative", verify -> verify.that(1).isLessThan(0));
+              });
+              given("two", () -> {
+                it.should("be even", verify -> verify.that(2 % 2).isEqualTo(0));
+              });
+            });
+          }};
+          try(JUnitXmlListener listener = new JUnitXmlListener(path)) {
+            spec.run(listener);
+          }
+          String xml = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+          verify.that(count(xml, "<testcase ")).isEqualTo(3L);
+          verify.that(counter(xml, "tests")).isEqualTo(3L);
+          verify.that(counter(xml, "failures")).isEqualTo(1L);
+          verify.that(counter(xml, "skipped")).isEqualTo(0L);
+          verify.that(count(xml, "<failure ")).isEqualTo(1L);
+        });
+        
+        it.should("count the skipped examples as skipped testcases", verify -> {
+          Path path = TimingHistoryTest.tempFile();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("one", () -> {
+                it.should("be negative", verify -> verify.that(1).isLessThan(0));
+              });
+              given("two", () -> {
+                it.should("be negative", verify -> verify.that(2).isLessThan(0));
+              });
+            });
+          }};
+          spec.setExecutionStrategy(ExecutionStrategy.sequential());
+          spec.setFailFast(true);
+          try(JUnitXmlListener listener = new JUnitXmlListener(path)) {
+            spec.run(listener);
+          }
+          String xml = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+          verify.that(count(xml, "<testcase ")).isEqualTo(2L);
+          verify.that(counter(xml, "tests")).isEqualTo(2L);
+          verify.that(counter(xml, "failures")).isEqualTo(1L);
+          verify.that(counter(xml, "skipped")).isEqualTo(1L);
+        });
+      });
+      
+      given("an example that interrupts its thread", () -> {
+        it.should("write one testcase by test", verify -> {
+          Path path = TimingHistoryTest.tempFile();
+          try(JUnitXmlListener listener = new JUnitXmlListener(path)) {
+            JsonLinesListenerTest.interrupting().run(listener);
+          }
+          String xml = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+          verify.that(count(xml, "<testcase ")).isEqualTo(20L);
+          verify.that(counter(xml, "tests")).isEqualTo(20L);
+          verify.that(counter(xml, "failures")).isEqualTo(1L);
+          verify.that(xml.endsWith("</testsuite>\n")).isTrue();
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new JUnitXmlListenerTest().run();
+  }
+}
@@ -0,0 +1,95 @@
+package com.github.forax.jayspec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.github.forax.jayspec.JayAssertion.Checker;
+
+public class JayAssertionTest extends JaySpec {
+  // an assertion that records the text of the failed checks instead of throwing an error
+  static JayAssertion recording(List<String> failures) {
+    return new JayAssertion(new Checker() {
+      @Override
+      public <E> void check(E actual, Predicate<? super E> predicate, Supplier<String> textSupplier) {
+        failures.add(String.format(textSupplier.get(), actual));
+      }
+    });
+  }
+  
+  public JayAssertionTest() {
+    describe(JayAssertion.class, it -> {
+      given("an assertion on an array", () -> {
+        it.should("not be equal to a boxed element", verify -> {
+          ArrayList<String> failures = new ArrayList<>();
+          JayAssertion assertion = recording(failures);
+          assertion.that(new int[] { 3 }).isEqualTo(3);
+          assertion.that(new long[] { 3 }).isEqualTo(3L);
+          assertion.that(new double[] { 3 }).isEqualTo(3.0);
+          assertion.that(new byte[] { 3 }).isEqualTo((byte)3);
+          assertion.that(ByteBuffer.wrap(new byte[] { 3 })).isEqualTo((byte)3);
+          verify.that(failures).size().isEqualTo(5);
+          verify.that(failures.get(0)).isEqualTo("[3] equals 3 (a java.lang.Integer, not an array)");
+        });
+        
+        it.should("be different from a boxed element", verify -> {
+          ArrayList<String> failures = new ArrayList<>();
+          JayAssertion assertion = recording(failures);
+          assertion.that(new int[] { 3 }).isNotEqualTo(3);
+          assertion.that(new long[] { 3 }).isNotEqualTo(3L);
+          assertion.that(new double[] { 3 }).isNotEqualTo(3.0);
+          assertion.that(new byte[] { 3 }).isNotEqualTo((byte)3);
+          assertion.that(ByteBuffer.wrap(new byte[] { 3 })).isNotEqualTo((byte)3);
+          verify.that(failures).isEmpty();
+        });
+        
+        it.should("still compare an array typed as an Object", verify -> {
+          ArrayList<String> failures = new ArrayList<>();
+          JayAssertion assertion = recording(failures);
+          Object same = new int[] { 3 };
+          assertion.that(new int[] { 3 }).isEqualTo(same);
+          assertion.that((int[])null).isEqualTo((Object)null);
+          verify.that(failures).isEmpty();
+        });
+        
+        it.should("name the step navigated from a null array", verify -> {
+          ArrayList<String> failures = new ArrayList<>();
+          try {
+            recording(failures).that((int[])null).length();
+          } catch(NullPointerException e) {
+            verify.that(e.getMessage()).isEqualTo("length of null array");
+          }
+          verify.that(failures).isEqualTo(Arrays.asList("length of null array"));
+        });
+        
+        it.should("fail on a mismatch count with a null array", verify -> {
+          ArrayList<String> failures = new ArrayList<>();
+          try {
+            recording(failures).that(new int[] { 3 }).mismatchCount((int[])null);
+          } catch(NullPointerException e) {
+            verify.that(e.getMessage()).isEqualTo("mismatch count of a null array");
+          }
+          verify.that(failures).isEqualTo(Arrays.asList("mismatch count of [3] with a null array"));
+        });
+        
+        it.should("report the failure through the default checker", verify -> {
+          AssertionError error = null;
+          try {
+            new JayAssertion().that((ByteBuffer)null).mismatchCount(ByteBuffer.allocate(1));
+          } catch(AssertionError e) {
+            error = e;
+          }
+          verify.that(error).isNotNull();
+          verify.that(error.getMessage()).isEqualTo("Invalid assertion, mismatch count of null buffer");
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new JayAssertionTest().run();
+  }
+}
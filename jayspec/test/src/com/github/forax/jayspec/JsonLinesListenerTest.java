@@ -0,0 +1,91 @@
+package com.github.forax.jayspec;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+public class JsonLinesListenerTest extends JaySpec {
+  // a spec of 20 examples, the test of the first one interrupts its thread then fails
+  // with a message bigger than the buffer of the writer, so the buffer is written by the interrupted thread
+  static JaySpec interrupting() {
+    char[] big = new char[100_000];
+    Arrays.fill(big, 'x');
+    JaySpec spec = new JaySpec() {{
+      describe(Integer.class, it -> {
+        given("an interrupted thread", () -> {
+          it.should("fail with a big message", verify -> {
+            Thread.currentThread().interrupt();
+            verify.that(new String(big)).isEqualTo("");
+          });
+        });
+        for(int i = 1; i < 20; i++) {
+          int value = i;
+          given("the value " + value, () -> {
+            it.should("be positive", verify -> verify.that(value).isGreaterThan(0));
+          });
+        }
+      });
+    }};
+    // each example has its own thread, so the interrupted thread is not reused
+    spec.setExecutionStrategy(ExecutionStrategy.virtualThreads(4));
+    return spec;
+  }
+  
+  // a spec of 20 examples, the first one times out while its tests report big failures,
+  // it ignores the interruption and keeps reporting for a while
+  static JaySpec timingOut() {
+    char[] big = new char[100_000];
+    Arrays.fill(big, 'x');
+    return new JaySpec() {{
+      describe(Integer.class, it -> {
+        given("an example that times out", Duration.ofMillis(50), () -> {
+          long end = System.nanoTime() + 500_000_000L;
+          while(System.nanoTime() < end) {
+            it.should("fail with a big message", verify -> verify.that(new String(big)).isEqualTo(""));
+          }
+        });
+        for(int i = 1; i < 20; i++) {
+          int value = i;
+          given("the value " + value, () -> {
+            it.should("be positive", verify -> verify.that(value).isGreaterThan(0));
+          });
+        }
+      });
+    }};
+  }
+  
+  public JsonLinesListenerTest() {
+    describe(JsonLinesListener.class, it -> {
+      given("an example that interrupts its thread", () -> {
+        it.should("write one line by test", verify -> {
+          Path path = TimingHistoryTest.tempFile();
+          try(JsonLinesListener listener = new JsonLinesListener(path)) {
+            interrupting().run(listener);
+          }
+          List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+          verify.that(lines).size().isEqualTo(20);
+          verify.that(lines.stream().filter(line -> line.contains("\"status\":\"failed\"")).count()).isEqualTo(1L);
+        });
+      });
+      given("an example that times out while reporting", () -> {
+        it.should("write complete lines and the next examples", verify -> {
+          Path path = TimingHistoryTest.tempFile();
+          try(JsonLinesListener listener = new JsonLinesListener(path)) {
+            timingOut().run(listener);
+          }
+          List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+          verify.that(lines.stream().allMatch(line -> line.startsWith("{") && line.endsWith("}"))).isTrue();
+          verify.that(lines.stream().filter(line -> line.contains("has not finished after")).count()).isEqualTo(1L);
+          verify.that(lines.stream().filter(line -> line.contains("\"status\":\"passed\"")).count()).isEqualTo(19L);
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new JsonLinesListenerTest().run();
+  }
+}
@@ -0,0 +1,47 @@
+package com.github.forax.jayspec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.github.forax.jayspec.JaySpec.AssertionConsumer;
+import com.github.forax.jayspec.JaySpec.Behavior;
+import com.github.forax.jayspec.JaySpec.MeasureConsumer;
+
+public class MeasureTest extends JaySpec {
+  // a behavior that checks a measure of the VM without allocation counting
+  static Behavior noAllocationCount(JayAssertion assertion) {
+    return new Behavior() {
+      @Override
+      public void should(String description, AssertionConsumer assertionConsumer) {
+        throw new UnsupportedOperationException();
+      }
+      @Override
+      public void shouldMeasure(String description, int warmupIterations, int iterations,
+                                Runnable operation, MeasureConsumer measureConsumer) {
+        try {
+          measureConsumer.accept(new Measure(iterations, 1_000, -1), assertion);
+        } catch(Exception e) {
+          throw new AssertionError(e);
+        }
+      }
+    };
+  }
+  
+  public MeasureTest() {
+    describe(Measure.class, it -> {
+      given("a VM that doesn't count the allocated bytes", () -> {
+        it.should("fail the allocation contract", verify -> {
+          ArrayList<String> failures = new ArrayList<>();
+          noAllocationCount(JayAssertionTest.recording(failures))
+              .shouldAllocateAtMost("allocate nothing", 10, 0, () -> { /* empty */ });
+          verify.that(failures).isEqualTo(Arrays.asList(
+              "allocation measurement unavailable, this VM doesn't count the allocated bytes"));
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new MeasureTest().run();
+  }
+}
@@ -0,0 +1,68 @@
+package com.github.forax.jayspec;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class OutcomeHistoryTest extends JaySpec {
+  // a spec with two examples with the same description, the second one fails if failing is true
+  static JaySpec sameDescriptions(Path path, AtomicBoolean failing) {
+    JaySpec spec = new JaySpec() {{
+      describe(Integer.class, it -> {
+        given("an integer", () -> {
+          it.should("be positive", verify -> verify.that(1).isGreaterThan(0));
+        });
+        given("an integer", () -> {
+          it.should("be negative", verify -> verify.that(failing.get()? 1: -1).isLessThan(0));
+        });
+      });
+    }};
+    spec.setOutcomeHistory(path);
+    return spec;
+  }
+  
+  public OutcomeHistoryTest() {
+    describe(OutcomeHistory.class, it -> {
+      given("two examples with the same description", () -> {
+        it.should("store one outcome by example", verify -> {
+          Path path = TimingHistoryTest.tempFile();
+          sameDescriptions(path, new AtomicBoolean(true)).runCompact();
+          
+          List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+          verify.that(lines).size().isEqualTo(2);
+          verify.that(lines.get(0).startsWith("passed\t1\t")).isTrue();
+          verify.that(lines.get(1).startsWith("failed\t1\t")).isTrue();
+        });
+        
+        it.should("run again the failed one", verify -> {
+          Path path = TimingHistoryTest.tempFile();
+          AtomicBoolean failing = new AtomicBoolean(true);
+          sameDescriptions(path, failing).runCompact();
+          
+          CompactReport report = sameDescriptions(path, failing).runCompact();
+          verify.that(report.getCachedCount()).isEqualTo(1L);
+          verify.that(report.getFailedCount()).isEqualTo(1L);
+        });
+        
+        it.should("cache both once they pass", verify -> {
+          Path path = TimingHistoryTest.tempFile();
+          AtomicBoolean failing = new AtomicBoolean(true);
+          sameDescriptions(path, failing).runCompact();
+          failing.set(false);
+          CompactReport fixed = sameDescriptions(path, failing).runCompact();
+          verify.that(fixed.getPassedCount()).isEqualTo(1L);
+          
+          CompactReport report = sameDescriptions(path, failing).runCompact();
+          verify.that(report.getCachedCount()).isEqualTo(2L);
+          verify.that(report.getTestCount()).isEqualTo(0L);
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new OutcomeHistoryTest().run();
+  }
+}
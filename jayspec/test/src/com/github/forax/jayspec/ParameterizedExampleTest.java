@@ -0,0 +1,99 @@
+package com.github.forax.jayspec;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class ParameterizedExampleTest extends JaySpec {
+  // the parameters from 0 to count, pulled counts the parameters already pulled
+  static Iterator<Integer> counting(int count, AtomicInteger pulled) {
+    return IntStream.range(0, count).peek(__ -> pulled.incrementAndGet()).iterator();
+  }
+  
+  public ParameterizedExampleTest() {
+    describe(ExecutionStrategy.class, it -> {
+      given("a parameterized example with 5000 rows", () -> {
+        it.should("pull a row only when it's run", verify -> {
+          AtomicInteger pulled = new AtomicInteger();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("the value %s", () -> counting(5_000, pulled), value -> {
+                it.should("be the last pulled", verify -> verify.that(pulled.get()).isEqualTo(value + 1));
+              });
+            });
+          }};
+          spec.setExecutionStrategy(ExecutionStrategy.sequential());
+          
+          CompactReport report = spec.runCompact();
+          verify.that(report.getPassedCount()).isEqualTo(5_000L);
+          verify.that(report.getFailedCount()).isEqualTo(0L);
+        });
+        
+        it.should("run all the examples with one call to the strategy", verify -> {
+          AtomicInteger calls = new AtomicInteger();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("the value %s", () -> IntStream.range(0, 5_000).iterator(), value -> {
+                it.should("be positive", verify -> verify.that(value).isGreaterThan(-1));
+              });
+              given("zero", () -> {
+                it.should("be zero", verify -> verify.that(0).isEqualTo(0));
+              });
+            });
+          }};
+          ExecutionStrategy forkJoin = ExecutionStrategy.forkJoin();
+          spec.setExecutionStrategy((examples, runner) -> {
+            calls.incrementAndGet();
+            forkJoin.execute(examples, runner);
+          });
+          
+          CompactReport report = spec.runCompact();
+          verify.that(report.getPassedCount()).isEqualTo(5_001L);
+          verify.that(calls.get()).isEqualTo(1);
+        });
+        
+        it.should("close the fixture once all the rows have run", verify -> {
+          AtomicBoolean closed = new AtomicBoolean();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              Fixture<AutoCloseable> resource = fixture("a resource", () -> () -> closed.set(true));
+              given("the value %s", () -> IntStream.range(0, 5_000).iterator(), value -> {
+                it.should("see an opened resource", verify -> {
+                  resource.get();
+                  verify.that(closed.get()).isFalse();
+                });
+              });
+            });
+          }};
+          spec.setExecutionStrategy(ExecutionStrategy.virtualThreads(8));
+          
+          CompactReport report = spec.runCompact();
+          verify.that(report.getPassedCount()).isEqualTo(5_000L);
+          verify.that(closed.get()).isTrue();
+        });
+        
+        it.should("not pull the rows once the failure budget is exhausted", verify -> {
+          AtomicInteger pulled = new AtomicInteger();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("the value %s", () -> counting(5_000, pulled), value -> {
+                it.should("be negative", verify -> verify.that(value).isLessThan(0));
+              });
+            });
+          }};
+          spec.setExecutionStrategy(ExecutionStrategy.sequential());
+          spec.setFailFast(true);
+          
+          CompactReport report = spec.runCompact();
+          verify.that(report.getFailedCount()).isEqualTo(1L);
+          verify.that(pulled.get()).isEqualTo(1);
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new ParameterizedExampleTest().run();
+  }
+}
@@ -0,0 +1,68 @@
+package com.github.forax.jayspec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PropertyRunnerTest extends JaySpec {
+  // the failures of forAll() recorded by the checker
+  static <T> List<String> forAll(Generator<T> generator, long seed, JayAssertion.Property<? super T> property) {
+    ArrayList<String> failures = new ArrayList<>();
+    JayAssertionTest.recording(failures).forAll(generator, 1_000, seed, property);
+    return failures;
+  }
+  
+  public PropertyRunnerTest() {
+    describe(PropertyRunner.class, it -> {
+      given("a property falsified by the ints greater or equal to 10", () -> {
+        JayAssertion.Property<Integer> lessThan10 = (value, check) -> check.that(value).isLessThan(10);
+        
+        it.should("report the failure through the checker", verify -> {
+          List<String> failures = forAll(Generator.ints(), 42, lessThan10);
+          verify.that(failures).size().isEqualTo(1);
+          verify.that(failures.get(0).startsWith("property falsified by ")).isTrue();
+          verify.that(failures.get(0).contains("(seed 42, ")).isTrue();
+        });
+        
+        it.should("find the same counterexample with the same seed", verify -> {
+          List<String> failures = forAll(Generator.ints(), 42, lessThan10);
+          verify.that(failures).isEqualTo(forAll(Generator.ints(), 42, lessThan10));
+        });
+        
+        it.should("shrink to the minimal counterexample", verify -> {
+          List<String> failures = forAll(Generator.ints(), 42, lessThan10);
+          verify.that(failures.get(0).startsWith("property falsified by 10 ")).isTrue();
+        });
+      });
+      
+      given("a property only verified by 0.0", () -> {
+        it.should("stop shrinking a double near zero", verify -> {
+          List<String> failures = forAll(Generator.doubles(), 42, (value, check) -> check.that(value).isEqualTo(0.0));
+          verify.that(failures).size().isEqualTo(1);
+          String failure = failures.get(0);
+          int start = failure.indexOf("shrunk ") + "shrunk ".length();
+          int shrinkCount = Integer.parseInt(failure.substring(start, failure.indexOf(' ', start)));
+          verify.that(shrinkCount).isLessThan(100);
+        });
+      });
+      
+      given("an infinite double", () -> {
+        it.should("be shrunk to a finite double", verify -> {
+          verify.that(Generator.doubles().shrink(Double.POSITIVE_INFINITY).contains(Double.MAX_VALUE)).isTrue();
+          verify.that(Generator.doubles().shrink(Double.NEGATIVE_INFINITY).contains(-Double.MAX_VALUE)).isTrue();
+        });
+      });
+      
+      given("a double smaller than the precision of 1.0", () -> {
+        it.should("only be shrunk to 0.0", verify -> {
+          List<Double> values = Generator.doubles().shrink(Math.ulp(1.0) / 4);
+          verify.that(values).size().isEqualTo(1);
+          verify.that(values.get(0)).isEqualTo(0.0);
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new PropertyRunnerTest().run();
+  }
+}
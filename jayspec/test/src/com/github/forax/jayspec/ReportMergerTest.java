@@ -0,0 +1,105 @@
+package com.github.forax.jayspec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class ReportMergerTest extends JaySpec {
+  static Path shard(String... lines) throws IOException {
+    Path path = TimingHistoryTest.tempFile();
+    Files.write(path, Arrays.asList(lines), StandardCharsets.UTF_8);
+    return path;
+  }
+  
+  public ReportMergerTest() {
+    describe(ReportMerger.class, it -> {
+      given("two shards with cached and skipped examples", () -> {
+        it.should("count each status", verify -> {
+          Path shard0 = shard(
+              "{\"spec\":\"java.lang.Integer\",\"example\":\"one\",\"test\":\"be positive\",\"status\":\"passed\",\"duration\":1234}",
+              "{\"spec\":\"java.lang.Integer\",\"example\":\"two\",\"status\":\"cached\"}",
+              "");
+          Path shard1 = shard(
+              "{\"spec\":\"java.lang.Integer\",\"example\":\"three\",\"test\":\"be negative\",\"status\":\"failed\",\"duration\":12,"
+                  + "\"error\":\"java.lang.AssertionError: Invalid assertion, 3 < 0\"}",
+              "{\"spec\":\"java.lang.Integer\",\"example\":\"four\",\"status\":\"skipped\"}",
+              "{\"spec\":\"java.lang.Integer\",\"example\":\"five\",\"status\":\"skipped\"}");
+          
+          ReportMerger merger = new ReportMerger();
+          merger.merge(shard0);
+          merger.merge(shard1);
+          verify.that(merger.getReportCount()).isEqualTo(2L);
+          verify.that(merger.getFailedCount()).isEqualTo(1L);
+          verify.that(merger.getSkippedCount()).isEqualTo(2L);
+          verify.that(merger.getCachedCount()).isEqualTo(1L);
+        });
+        
+        it.should("merge the files written by the listener", verify -> {
+          Path path = TimingHistoryTest.tempFile();
+          Path outcomes = TimingHistoryTest.tempFile();
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("one", () -> {
+                it.should("be positive", verify -> verify.that(1).isGreaterThan(0));
+              });
+              given("two", () -> {
+                it.should("be positive", verify -> verify.that(2).isGreaterThan(0));
+              });
+            });
+          }};
+          spec.setOutcomeHistory(outcomes);
+          spec.runCompact();  // the second run only has cached examples
+          try(JsonLinesListener listener = new JsonLinesListener(path)) {
+            spec.run(listener);
+          }
+          
+          ReportMerger merger = new ReportMerger();
+          merger.merge(path);
+          verify.that(merger.getReportCount()).isEqualTo(0L);
+          verify.that(merger.getCachedCount()).isEqualTo(2L);
+        });
+        
+        it.should("reject an unknown status", verify -> {
+          Path path = shard("{\"spec\":\"java.lang.Integer\",\"example\":\"one\",\"status\":\"lost\"}");
+          IllegalArgumentException exception = null;
+          try {
+            new ReportMerger().merge(path);
+          } catch(IllegalArgumentException e) {
+            exception = e;
+          }
+          verify.that(exception).isNotNull();
+        });
+      });
+      
+      given("a line with escaped characters", () -> {
+        it.should("decode the escape sequences", verify -> {
+          HashMap<String, String> report = ReportMerger.parse(
+              "{\"example\":\"a \\\"quoted\\\"\\n\\ttext \\u0001\",\"duration\":-1}");
+          verify.that(report.get("example")).isEqualTo("a \"quoted\"\n\ttext \u0001");
+          verify.that(report.get("duration")).isEqualTo("-1");
+        });
+      });
+      
+      given("a line truncated after a backslash", () -> {
+        it.should("be rejected", verify -> {
+          for(String line: new String[] { "{\"example\":\"a text\\", "{\"example\":\"a text\\u00" }) {
+            IllegalArgumentException exception = null;
+            try {
+              ReportMerger.parse(line);
+            } catch(IllegalArgumentException e) {
+              exception = e;
+            }
+            verify.that(exception).isNotNull();
+          }
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new ReportMergerTest().run();
+  }
+}
@@ -0,0 +1,66 @@
+package com.github.forax.jayspec;
+
+import java.util.List;
+
+import com.github.forax.jayspec.JayAssertion.SoftAssertionError;
+import com.github.forax.jayspec.JaySpec.Report;
+
+public class SoftAssertionTest extends JaySpec {
+  // a spec with one test that has three failed assertions
+  static JaySpec threeFailures() {
+    return new JaySpec() {{
+      describe(Integer.class, it -> {
+        given("the value 1", () -> {
+          it.should("fail three times", verify -> {
+            verify.that(1).isEqualTo(2);
+            verify.that(1).isEqualTo(1);
+            verify.that(1).isEqualTo(3);
+            verify.that(1).isEqualTo(4);
+          });
+        });
+      });
+    }};
+  }
+  
+  public SoftAssertionTest() {
+    describe(SoftAssertionError.class, it -> {
+      given("a test with three failed assertions", () -> {
+        it.should("report all the failures", verify -> {
+          JaySpec spec = threeFailures();
+          spec.setSoftAssertions(true);
+          List<Report> reports = spec.runTest(Report::new);
+          verify.that(reports.size()).isEqualTo(1);
+          Throwable error = reports.get(0).getError();
+          verify.that(error instanceof SoftAssertionError).isTrue();
+          verify.that(error.getMessage().startsWith("3 failed assertion(s)")).isTrue();
+          verify.that(error.getMessage().split("\n").length).isEqualTo(4);
+        });
+        
+        it.should("only report the first failure by default", verify -> {
+          List<Report> reports = threeFailures().runTest(Report::new);
+          verify.that(reports.size()).isEqualTo(1);
+          Throwable error = reports.get(0).getError();
+          verify.that(error instanceof SoftAssertionError).isFalse();
+          verify.that(error.getMessage().contains("2")).isTrue();
+        });
+        
+        it.should("not report a passing test", verify -> {
+          JaySpec spec = new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("the value 1", () -> {
+                it.should("be 1", verify -> verify.that(1).isEqualTo(1));
+              });
+            });
+          }};
+          spec.setSoftAssertions(true);
+          List<Report> reports = spec.runTest(Report::new);
+          verify.that(reports.get(0).getError() == null).isTrue();
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new SoftAssertionTest().run();
+  }
+}
@@ -0,0 +1,64 @@
+package com.github.forax.jayspec;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.forax.jayspec.JaySpec.Report;
+
+public class StackCaptureTest extends JaySpec {
+  // the error of the only test of a spec
+  static Throwable error(JaySpec spec) {
+    List<Report> reports = spec.runTest(Report::new);
+    return reports.get(0).getError();
+  }
+  
+  static boolean isLibrary(StackTraceElement element) {
+    String className = element.getClassName();
+    return className.startsWith(JayAssertion.class.getName()) || className.startsWith(JaySpec.class.getName()) ||
+        className.startsWith(PropertyRunner.class.getName());
+  }
+  
+  public StackCaptureTest() {
+    describe(StackCapture.class, it -> {
+      given("a failed assertion of a test of the same package as the library", () -> {
+        it.should("capture the frame of the test at the top", verify -> {
+          Throwable error = error(new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("the value 1", () -> {
+                it.should("be 2", verify -> verify.that(1).isEqualTo(2));
+              });
+            });
+          }});
+          StackTraceElement[] stackTrace = error.getStackTrace();
+          verify.that(stackTrace.length).isGreaterThan(0);
+          verify.that(stackTrace[0].getClassName().startsWith(StackCaptureTest.class.getName())).isTrue();
+          verify.that(Arrays.stream(stackTrace).noneMatch(StackCaptureTest::isLibrary)).isTrue();
+        });
+        
+        it.should("only capture the frames of the test in a worker thread of forAll()", verify -> {
+          Throwable error = error(new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("the value 1", () -> {
+                it.should("fail in a worker thread", verify -> {
+                  // the property uses the assertion of the test, so the failure captures the worker stack
+                  verify.forAll(Generator.ints(), (value, __) -> verify.that(value).isLessThan(0));
+                });
+              });
+            });
+          }});
+          Throwable cause = error.getCause();
+          verify.that(cause).isNotNull();
+          StackTraceElement[] stackTrace = cause.getStackTrace();
+          verify.that(stackTrace.length).isGreaterThan(0);
+          verify.that(stackTrace[0].getClassName().startsWith(StackCaptureTest.class.getName())).isTrue();
+          verify.that(Arrays.stream(stackTrace).noneMatch(StackCaptureTest::isLibrary)).isTrue();
+          verify.that(Arrays.stream(stackTrace).noneMatch(element -> element.getClassName().startsWith("java."))).isTrue();
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new StackCaptureTest().run();
+  }
+}
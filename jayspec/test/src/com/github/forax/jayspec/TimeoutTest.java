@@ -0,0 +1,58 @@
+package com.github.forax.jayspec;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import com.github.forax.jayspec.JaySpec.Report;
+import com.github.forax.jayspec.JaySpec.TimeoutError;
+
+public class TimeoutTest extends JaySpec {
+  // a spec with an example that never finishes before its timeout followed by 3 examples
+  static JaySpec hung(CountDownLatch latch) {
+    return new JaySpec() {{
+      describe(Integer.class, it -> {
+        given("an example that waits forever", Duration.ofMillis(50), () -> {
+          it.should("be interrupted", verify -> {
+            latch.await();
+          });
+        });
+        for(int i = 1; i < 4; i++) {
+          int value = i;
+          given("the value " + value, Duration.ofSeconds(10), () -> {
+            it.should("be positive", verify -> verify.that(value).isGreaterThan(0));
+          });
+        }
+      });
+    }};
+  }
+  
+  public TimeoutTest() {
+    describe(TimeoutError.class, it -> {
+      given("an example that doesn't finish before its timeout", () -> {
+        it.should("fail with a timeout and let the run continue", verify -> {
+          CountDownLatch latch = new CountDownLatch(1);
+          JaySpec spec = hung(latch);
+          spec.setExecutionStrategy(ExecutionStrategy.sequential());
+          long start = System.nanoTime();
+          List<Report> reports;
+          try {
+            reports = spec.runTest(Report::new);
+          } finally {
+            latch.countDown();
+          }
+          verify.that(System.nanoTime() - start).isLessThan(5_000_000_000L);
+          verify.that(reports).size().isEqualTo(4);
+          Throwable error = reports.get(0).getError();
+          verify.that(error instanceof TimeoutError).isTrue();
+          verify.that(error.getMessage().contains("has not finished after PT0.05S")).isTrue();
+          verify.that(reports.stream().skip(1).allMatch(report -> report.getError() == null)).isTrue();
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new TimeoutTest().run();
+  }
+}
@@ -0,0 +1,122 @@
+package com.github.forax.jayspec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.github.forax.jayspec.JaySpec.Example;
+import com.github.forax.jayspec.JaySpec.Spec;
+
+public class TimingHistoryTest extends JaySpec {
+  // a path to a file that doesn't exist yet
+  static Path tempFile() throws IOException {
+    Path path = Files.createTempFile("history", ".txt");
+    Files.delete(path);
+    path.toFile().deleteOnExit();
+    return path;
+  }
+  
+  static TimingHistory roundTrip(Path path, TimingHistory history) throws IOException {
+    history.save();
+    return TimingHistory.load(path);
+  }
+  
+  static List<String> descriptions(List<Example> examples) {
+    return examples.stream().map(Example::getDescription).collect(Collectors.toList());
+  }
+  
+  public TimingHistoryTest() {
+    describe(TimingHistory.class, it -> {
+      Spec spec = new Spec(String.class, __ -> { /* empty */ });
+      Example fast = new Example(spec, "fast", () -> { /* empty */ });
+      Example slow = new Example(spec, "slow", () -> { /* empty */ });
+      Example unknown = new Example(spec, "unknown", () -> { /* empty */ });
+      
+      given("a history saved then loaded", () -> {
+        it.should("start the examples with no duration first then the slowest", verify -> {
+          Path path = tempFile();
+          TimingHistory history = TimingHistory.load(path);
+          history.exampleFinished(fast, 1_000);
+          history.exampleFinished(slow, 1_000_000);
+          
+          ArrayList<Example> examples = new ArrayList<>(Arrays.asList(fast, unknown, slow));
+          roundTrip(path, history).sortLongestFirst(examples);
+          verify.that(descriptions(examples)).isEqualTo(Arrays.asList("unknown", "slow", "fast"));
+        });
+        
+        it.should("keep a description with tabs and new lines", verify -> {
+          Path path = tempFile();
+          Example strange = new Example(spec, "a\tstrange\ndescription\\", () -> { /* empty */ });
+          TimingHistory history = TimingHistory.load(path);
+          history.exampleFinished(strange, 1_000_000);
+          history.exampleFinished(fast, 1_000);
+          
+          ArrayList<Example> examples = new ArrayList<>(Arrays.asList(fast, strange));
+          roundTrip(path, history).sortLongestFirst(examples);
+          verify.that(descriptions(examples)).isEqualTo(Arrays.asList(strange.getDescription(), "fast"));
+          verify.that(Files.readAllLines(path, StandardCharsets.UTF_8)).size().isEqualTo(2);
+        });
+        
+        it.should("drop the examples that no longer exist", verify -> {
+          Path path = tempFile();
+          TimingHistory history = TimingHistory.load(path);
+          history.exampleFinished(fast, 1_000);
+          history.exampleFinished(slow, 1_000_000);
+          
+          TimingHistory loaded = roundTrip(path, history);
+          loaded.retain(Collections.singletonList(fast), Collections.emptySet());
+          roundTrip(path, loaded);
+          verify.that(Files.readAllLines(path, StandardCharsets.UTF_8)).isEqualTo(
+              Collections.singletonList("1000\tjava.lang.String\tfast"));
+        });
+        
+        it.should("keep the examples of a spec rejected by the filter", verify -> {
+          Path path = tempFile();
+          TimingHistory history = TimingHistory.load(path);
+          history.exampleFinished(fast, 1_000);
+          
+          TimingHistory loaded = roundTrip(path, history);
+          loaded.retain(Collections.emptyList(), Collections.singleton(String.class.getName()));
+          roundTrip(path, loaded);
+          verify.that(Files.readAllLines(path, StandardCharsets.UTF_8)).size().isEqualTo(1);
+        });
+        
+        it.should("store the examples with the same description separately", verify -> {
+          Path path = tempFile();
+          JaySpec sameDescriptions = new JaySpec() {{
+            describe(Integer.class, it -> {
+              given("an integer", () -> it.should("be positive", verify -> verify.that(1).isGreaterThan(0)));
+              given("an integer", () -> it.should("be negative", verify -> verify.that(-1).isLessThan(0)));
+            });
+          }};
+          sameDescriptions.setTimingHistory(path);
+          sameDescriptions.runCompact();
+          
+          List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+          verify.that(lines).size().isEqualTo(2);
+          verify.that(lines.get(0).endsWith("\tjava.lang.Integer\tan integer")).isTrue();
+          verify.that(lines.get(1).endsWith("\tjava.lang.Integer\tan integer\t1")).isTrue();
+        });
+        
+        it.should("skip the corrupted lines", verify -> {
+          Path path = tempFile();
+          Files.write(path, Arrays.asList("no tab", "notanumber\tjava.lang.String\tslow", "1000\tjava.lang.String\tfast"),
+              StandardCharsets.UTF_8);
+          ArrayList<Example> examples = new ArrayList<>(Arrays.asList(fast, slow));
+          TimingHistory.load(path).sortLongestFirst(examples);
+          verify.that(descriptions(examples)).isEqualTo(Arrays.asList("slow", "fast"));
+        });
+      });
+    });
+  }
+  
+  public static void main(String[] args) {
+    new TimingHistoryTest().run();
+  }
+}